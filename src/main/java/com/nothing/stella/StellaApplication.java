@@ -2,13 +2,13 @@ package com.nothing.stella;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class StellaApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(StellaApplication.class, args);
-
-		// TODO check for order conformation after every 10 minutes
 	}
 }
@@ -0,0 +1,19 @@
+package com.nothing.stella.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PersistenceConfig {
+
+    // group inserts/updates per entity into JDBC batches, matches the sequence allocation size
+    @Bean
+    public HibernatePropertiesCustomizer batchingCustomizer() {
+        return properties -> {
+            properties.put("hibernate.jdbc.batch_size", 50);
+            properties.put("hibernate.order_inserts", true);
+            properties.put("hibernate.order_updates", true);
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.nothing.stella.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+public class SchedulingConfig {
+
+    // one thread per @Scheduled job (expiry, reconciliation, email dispatch, stream heartbeat),
+    // so a slow gateway or mail server run does not hold the other jobs back
+    @Value("${scheduling.pool-size:4}")
+    private int poolSize;
+
+    // replaces Boot's single threaded default scheduler
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduler-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        return scheduler;
+    }
+}
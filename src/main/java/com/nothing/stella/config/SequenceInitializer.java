@@ -0,0 +1,73 @@
+package com.nothing.stella.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+// orders and order_items used to take AUTO_INCREMENT ids, so on an existing database the
+// pooled sequences would hand out ids that are already taken. Moves each sequence past
+// the table's max id before anything is inserted, and refuses to start if it cannot.
+@Component
+public class SequenceInitializer {
+
+    // must match allocationSize on the entities
+    private static final int ALLOCATION_SIZE = 50;
+
+    // sequence, table, id column
+    private static final String[][] SEQUENCES = {
+            { "orders_seq", "orders", "order_id" },
+            { "order_items_seq", "order_items", "order_item_id" }
+    };
+
+    private static final Logger logger = LoggerFactory.getLogger(SequenceInitializer.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    // only injected so the schema is created/updated before the check runs
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void initialize() {
+        for (String[] sequence : SEQUENCES) {
+            align(sequence[0], sequence[1], sequence[2]);
+        }
+    }
+
+    // ----------------------------------------------------------------
+    // HELPER FUNCTIONS FOR SEQUENCES
+    // ----------------------------------------------------------------
+    private void align(String sequence, String table, String column) {
+        try {
+            long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + column + "), 0) FROM " + table,
+                    Long.class);
+            // the pooled optimizer hands out (value - 49 .. value) for each value it reads,
+            // so the next value has to clear the max id by a whole block
+            long start = maxId + ALLOCATION_SIZE + 1;
+
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence + " START WITH " + start
+                    + " INCREMENT BY " + ALLOCATION_SIZE);
+            if (nextValue(sequence) - ALLOCATION_SIZE + 1 <= maxId) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + start);
+                logger.info("Restarted {} at {}, {} max id is {}", sequence, start, table, maxId);
+            }
+
+            if (nextValue(sequence) - ALLOCATION_SIZE + 1 <= maxId) {
+                throw new IllegalStateException(sequence + " is behind " + table + "." + column);
+            }
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Error: could not align " + sequence + " with " + table, e);
+        }
+    }
+
+    // MariaDB exposes a sequence as a table, reading it does not consume a value
+    private long nextValue(String sequence) {
+        return jdbcTemplate.queryForObject("SELECT next_not_cached_value FROM " + sequence, Long.class);
+    }
+}
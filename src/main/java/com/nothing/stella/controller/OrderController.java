@@ -5,6 +5,7 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.nothing.stella.exception.InvalidJWTHeaderException;
 import com.nothing.stella.exception.OrderException;
@@ -24,8 +26,10 @@ import com.nothing.stella.model.OrderViewModel;
 import com.nothing.stella.model.PaymentCallbackRequest;
 import com.nothing.stella.model.OrderByCartRequest;
 import com.nothing.stella.model.OrderPaymentRequest;
+import com.nothing.stella.model.PageViewModel;
 import com.nothing.stella.services.JWTService;
 import com.nothing.stella.services.OrderService;
+import com.nothing.stella.services.OrderStatusStreamService;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -35,6 +39,8 @@ public class OrderController {
     private OrderService orderService;
     @Autowired
     private JWTService jwtService;
+    @Autowired
+    private OrderStatusStreamService orderStatusStreamService;
 
     private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
 
@@ -131,9 +137,49 @@ public class OrderController {
         }
     }
 
+    @GetMapping("/history")
+    public PageViewModel<OrderViewModel> fetchOrders(@RequestHeader("Authorization") String jwtHeader,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (jwtService.verifyJwtHeader(jwtHeader)) {
+
+            // extract token from request header
+            String jwtToken = jwtHeader.substring(7);
+            try {
+                String reference = jwtService.fetchReference(jwtToken);
+
+                return orderService.fetchOrders(reference, cursor, size);
+            } catch (UserException e) {
+                throw e;
+            } catch (ProductException e) {
+                throw e;
+            } catch (OrderException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Unknown error: " + e.getMessage(), e);
+                throw new UnknownErrorException("Error: unknown error");
+            }
+        } else {
+            throw new InvalidJWTHeaderException("Error: Invalid JWTHeader");
+        }
+    }
+
     @GetMapping("/track")
     public String fetchOrderStatus(@RequestParam("order_id") Integer orderId) {
         return orderService.fetchOrderStatus(orderId);
     }
 
+    // pushes status transitions instead of being polled, one idle connection per watcher
+    @GetMapping(value = "/track/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderStatus(@RequestParam("order_id") Integer orderId) {
+        try {
+            return orderStatusStreamService.subscribe(orderId);
+        } catch (OrderException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Unknown error: " + e.getMessage(), e);
+            throw new UnknownErrorException("Error: unknown error");
+        }
+    }
+
 }
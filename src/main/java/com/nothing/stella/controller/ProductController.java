@@ -21,11 +21,17 @@ import com.nothing.stella.exception.InvalidStoreNameException;
 import com.nothing.stella.exception.ProductException;
 import com.nothing.stella.exception.UnknownErrorException;
 import com.nothing.stella.exception.UserException;
+import com.nothing.stella.model.PageViewModel;
+import com.nothing.stella.model.ProductBrowseViewModel;
+import com.nothing.stella.model.ProductImportResultModel;
 import com.nothing.stella.model.ProductInputModel;
+import com.nothing.stella.model.ProductShortViewModel;
 import com.nothing.stella.model.ProductUpdateModel;
 import com.nothing.stella.model.ProductViewModel;
+import com.nothing.stella.model.SuggestionViewModel;
 import com.nothing.stella.services.JWTService;
 import com.nothing.stella.services.ProductService;
+import com.nothing.stella.services.ProductSuggestionService;
 
 @RestController
 @RequestMapping("/api/products")
@@ -35,6 +41,8 @@ public class ProductController {
     private ProductService productService;
     @Autowired
     private JWTService jwtService;
+    @Autowired
+    private ProductSuggestionService productSuggestionService;
 
     private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
 
@@ -77,12 +85,40 @@ public class ProductController {
         }
     }
 
+    @PostMapping("/import")
+    public List<ProductImportResultModel> importProducts(@RequestHeader("Authorization") String jwtHeader,
+            @RequestParam MultipartFile manifest,
+            @RequestParam MultipartFile images) {
+
+        if (jwtService.verifyJwtHeader(jwtHeader)) {
+
+            String jwtToken = jwtHeader.substring(7);
+            try {
+                String reference = jwtService.fetchReference(jwtToken);
+
+                return productService.importProducts(reference, manifest, images);
+            } catch (ImageException e) {
+                throw e;
+            } catch (ProductException e) {
+                throw e;
+            } catch (UserException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Unknown error: " + e.getMessage(), e);
+                throw new UnknownErrorException("Error: unknown error");
+            }
+        } else {
+            throw new InvalidJWTHeaderException("Error: Invalid JWTHeader");
+        }
+    }
+
     @GetMapping("/store")
-    public List<ProductViewModel> getProductsByStoreName(@RequestParam("store") String storeName) {
-        // extract token from request header
+    public PageViewModel<ProductShortViewModel> getProductsByStoreName(@RequestParam("store") String storeName,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
         try {
 
-            return productService.getProductsByStoreName(storeName);
+            return productService.getProductsByStoreName(storeName, cursor, size);
 
         } catch (ProductException e) {
             throw e;
@@ -97,10 +133,12 @@ public class ProductController {
     }
 
     @GetMapping("/search")
-    public List<ProductViewModel> getProductsBySearch(@RequestParam("search") String name) {
+    public PageViewModel<ProductShortViewModel> getProductsBySearch(@RequestParam("search") String name,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
         try {
 
-            return productService.getProductsBySearch(name);
+            return productService.getProductsBySearch(name, cursor, size);
 
         } catch (ProductException e) {
             throw e;
@@ -112,6 +150,53 @@ public class ProductController {
         }
     }
 
+    @GetMapping("/detail")
+    public ProductViewModel getProduct(@RequestParam("id") int id) {
+        try {
+
+            return productService.getProduct(id);
+
+        } catch (ProductException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Unknown error: " + e.getMessage(), e);
+            throw new UnknownErrorException("Error: unknown error");
+        }
+    }
+
+    @GetMapping("/suggest")
+    public List<SuggestionViewModel> suggest(@RequestParam("prefix") String prefix,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        try {
+
+            return productSuggestionService.suggest(prefix, limit);
+
+        } catch (ProductException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Unknown error: " + e.getMessage(), e);
+            throw new UnknownErrorException("Error: unknown error");
+        }
+    }
+
+    @GetMapping("/browse")
+    public ProductBrowseViewModel browse(@RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "price", required = false) String priceBucket,
+            @RequestParam(value = "store_id", defaultValue = "0") int storeId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        try {
+
+            return productService.browse(category, priceBucket, storeId, cursor, size);
+
+        } catch (ProductException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Unknown error: " + e.getMessage(), e);
+            throw new UnknownErrorException("Error: unknown error");
+        }
+    }
+
     @PutMapping
     public ProductViewModel update(@RequestHeader("Authorization") String jwtHeader,
             @RequestParam("images") List<MultipartFile> images,
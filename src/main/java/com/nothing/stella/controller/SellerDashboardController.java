@@ -1,28 +1,39 @@
 package com.nothing.stella.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.nothing.stella.exception.InvalidExportFormatException;
 import com.nothing.stella.exception.InvalidJWTHeaderException;
 import com.nothing.stella.exception.OrderException;
 import com.nothing.stella.exception.ProductException;
 import com.nothing.stella.exception.UnknownErrorException;
 import com.nothing.stella.exception.UserException;
+import com.nothing.stella.model.PageViewModel;
 import com.nothing.stella.model.ProductViewModel;
 import com.nothing.stella.model.SellerOrderViewModel;
 import com.nothing.stella.model.UpdateOrderItemStatusModal;
 import com.nothing.stella.services.JWTService;
 import com.nothing.stella.services.ProductService;
 import com.nothing.stella.services.SellerDashboardService;
+import com.nothing.stella.services.UserService;
 
 @RestController
 @RequestMapping("/api/sellers/dashboard")
@@ -34,6 +45,8 @@ public class SellerDashboardController {
     private SellerDashboardService sellerDashboardService;
     @Autowired
     private ProductService productService;
+    @Autowired
+    private UserService userService;
 
     private static final Logger logger = LoggerFactory.getLogger(SellerDashboardController.class);
 
@@ -62,6 +75,35 @@ public class SellerDashboardController {
         }
     }
 
+    @GetMapping("/orders/feed")
+    public PageViewModel<SellerOrderViewModel> getSellerOrderFeed(@RequestHeader("Authorization") String jwtHeader,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (jwtService.verifyJwtHeader(jwtHeader)) {
+
+            // extract token from request header
+            String jwtToken = jwtHeader.substring(7);
+            try {
+                String reference = jwtService.fetchReference(jwtToken);
+
+                return sellerDashboardService.fetchOrders(reference, from, to, cursor, size);
+            } catch (UserException e) {
+                throw e;
+            } catch (ProductException e) {
+                throw e;
+            } catch (OrderException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Unknown error: " + e.getMessage(), e);
+                throw new UnknownErrorException("Error: unknown error");
+            }
+        } else {
+            throw new InvalidJWTHeaderException("Error: Invalid JWTHeader");
+        }
+    }
+
     @PostMapping("/update-order-status")
     public List<SellerOrderViewModel> updateOrderItemStatus(@RequestBody UpdateOrderItemStatusModal request,
             @RequestHeader("Authorization") String jwtHeader) {
@@ -88,6 +130,32 @@ public class SellerDashboardController {
         }
     }
 
+    @PostMapping("/update-order-statuses")
+    public List<SellerOrderViewModel> updateOrderItemStatuses(@RequestBody List<UpdateOrderItemStatusModal> requests,
+            @RequestHeader("Authorization") String jwtHeader) {
+        if (jwtService.verifyJwtHeader(jwtHeader)) {
+
+            // extract token from request header
+            String jwtToken = jwtHeader.substring(7);
+            try {
+                String reference = jwtService.fetchReference(jwtToken);
+
+                return sellerDashboardService.updateOrderItemStatuses(reference, requests);
+            } catch (UserException e) {
+                throw e;
+            } catch (ProductException e) {
+                throw e;
+            } catch (OrderException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Unknown error: " + e.getMessage(), e);
+                throw new UnknownErrorException("Error: unknown error");
+            }
+        } else {
+            throw new InvalidJWTHeaderException("Error: Invalid JWTHeader");
+        }
+    }
+
     @GetMapping("/products")
     public List<ProductViewModel> getProducts(@RequestHeader("Authorization") String jwtHeader) {
         if (jwtService.verifyJwtHeader(jwtHeader)) {
@@ -111,4 +179,43 @@ public class SellerDashboardController {
         }
     }
 
+    @GetMapping("/products/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestHeader("Authorization") String jwtHeader,
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        if (jwtService.verifyJwtHeader(jwtHeader)) {
+            // extract token from request header
+            String jwtToken = jwtHeader.substring(7);
+            try {
+                String reference = jwtService.fetchReference(jwtToken);
+
+                // validate before streaming, once the body starts the status can no longer change
+                String exportFormat = format.toLowerCase();
+                if (!exportFormat.equals("ndjson") && !exportFormat.equals("csv")) {
+                    throw new InvalidExportFormatException("Error: Invalid export format");
+                }
+                // the user is resolved here too, an unknown one still gets an error status
+                int userId = userService.findUserIdByReference(reference);
+                StreamingResponseBody body = outputStream -> productService.exportProducts(userId,
+                        exportFormat, outputStream);
+
+                return ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(
+                                exportFormat.equals("csv") ? "text/csv" : "application/x-ndjson"))
+                        .header(HttpHeaders.CONTENT_DISPOSITION,
+                                "attachment; filename=\"products." + exportFormat + "\"")
+                        .body(body);
+
+            } catch (ProductException e) {
+                throw e;
+            } catch (UserException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Unknown error: " + e.getMessage(), e);
+                throw new UnknownErrorException("Error: unknown error");
+            }
+        } else {
+            throw new InvalidJWTHeaderException("Error: Invalid JWTHeader");
+        }
+    }
+
 }
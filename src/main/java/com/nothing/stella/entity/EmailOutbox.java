@@ -0,0 +1,61 @@
+package com.nothing.stella.entity;
+
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "email_outbox", indexes = {
+        // serves the claim: status = 'pending' AND next_attempt_at <= now
+        @Index(name = "idx_email_outbox_due", columnList = "status, next_attempt_at, id"),
+        // serves the purge of old sent / failed rows
+        @Index(name = "idx_email_outbox_completed", columnList = "status, completed_at")
+})
+public class EmailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private long id;
+    @Column(name = "recipient")
+    private String recipient;
+    @Column(name = "subject")
+    private String subject;
+    @Column(name = "content", columnDefinition = "TEXT")
+    private String content;
+    // enum('pending','sent','failed')
+    @Column(name = "status")
+    private String status;
+    @Column(name = "attempts")
+    private int attempts;
+    @Column(name = "next_attempt_at")
+    private Date nextAttemptAt;
+    @Column(name = "created_at")
+    private Date createdAt;
+    // when the row became sent or failed
+    @Column(name = "completed_at")
+    private Date completedAt;
+
+    public EmailOutbox(String recipient, String subject, String content) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.content = content;
+        this.status = "pending";
+        this.attempts = 0;
+        this.createdAt = new Date();
+        this.nextAttemptAt = this.createdAt;
+    }
+}
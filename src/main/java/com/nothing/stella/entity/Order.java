@@ -7,7 +7,10 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,10 +21,17 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_date", columnList = "user_id, order_date, order_id")
+}, uniqueConstraints = {
+        // a payment can settle one order only, repeated callbacks cannot apply it twice
+        @UniqueConstraint(name = "uk_orders_razorpay_payment_id", columnNames = "razorpay_payment_id")
+})
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled sequence so inserts can be batched, one sequence call per 50 ids
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_generator")
+    @SequenceGenerator(name = "order_generator", sequenceName = "orders_seq", allocationSize = 50)
     @Column(name = "order_id")
     private int orderId;
     @Column(name = "user_id")
@@ -40,6 +50,10 @@ public class Order {
     private String razorpayId;
     @Column(name = "razorpay_payment_id")
     private String razorpayPaymentId;
+    // set for orders that took their stock at checkout, older orders never did and
+    // must not hand stock back when they are canceled or expire
+    @Column(name = "stock_reserved", columnDefinition = "boolean not null default false")
+    private boolean stockReserved;
 
     public Order(int userId, double totalAmount, String status, String shippingAddress, String razorpayId) {
         this.userId = userId;
@@ -5,6 +5,8 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,10 +18,16 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+        @Index(name = "idx_order_items_order", columnList = "order_id"),
+        // seller feed joins from the seller's products into their items
+        @Index(name = "idx_order_items_product", columnList = "product_id, order_id")
+})
 public class OrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled sequence so inserts can be batched, one sequence call per 50 ids
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_generator")
+    @SequenceGenerator(name = "order_item_generator", sequenceName = "order_items_seq", allocationSize = 50)
     @Column(name = "order_item_id")
     private int orderItemId;
     @Column(name = "order_id")
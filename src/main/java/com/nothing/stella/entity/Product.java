@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,7 +17,9 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_user_price", columnList = "user_id, price, product_id")
+})
 public class Product {
     @Id
     @Column(name = "product_id")
@@ -30,7 +33,9 @@ public class Product {
     private String description;
     @Column(name = "price")
     private double price;
-    @Column(name = "stock")
+    // checkouts reserve stock with conditional updates, so a save never writes it back;
+    // inserted with the product, changed only through ProductRepository's stock updates
+    @Column(name = "stock", updatable = false)
     private int stock;
     @Column(name = "category_id")
     private int categoryId;
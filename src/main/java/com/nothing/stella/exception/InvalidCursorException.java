@@ -0,0 +1,10 @@
+package com.nothing.stella.exception;
+
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+public class InvalidCursorException extends ProductException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
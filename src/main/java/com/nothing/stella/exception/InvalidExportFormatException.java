@@ -0,0 +1,10 @@
+package com.nothing.stella.exception;
+
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+public class InvalidExportFormatException extends ProductException {
+    public InvalidExportFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.nothing.stella.exception;
+
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+public class InvalidImportManifestException extends ProductException {
+    public InvalidImportManifestException(String message) {
+        super(message);
+    }
+}
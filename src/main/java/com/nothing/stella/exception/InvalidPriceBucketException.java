@@ -0,0 +1,10 @@
+package com.nothing.stella.exception;
+
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+public class InvalidPriceBucketException extends ProductException {
+    public InvalidPriceBucketException(String message) {
+        super(message);
+    }
+}
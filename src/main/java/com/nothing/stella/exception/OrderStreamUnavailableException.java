@@ -0,0 +1,10 @@
+package com.nothing.stella.exception;
+
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+public class OrderStreamUnavailableException extends OrderException {
+    public OrderStreamUnavailableException(String message) {
+        super(message);
+    }
+}
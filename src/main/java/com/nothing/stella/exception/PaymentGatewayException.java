@@ -0,0 +1,10 @@
+package com.nothing.stella.exception;
+
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+public class PaymentGatewayException extends OrderException {
+    public PaymentGatewayException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.nothing.stella.exception;
+
+import lombok.NoArgsConstructor;
+
+// the gateway is up but refused the request (4xx), retrying it will not help
+@NoArgsConstructor
+public class PaymentGatewayRejectedException extends OrderException {
+    public PaymentGatewayRejectedException(String message) {
+        super(message);
+    }
+}
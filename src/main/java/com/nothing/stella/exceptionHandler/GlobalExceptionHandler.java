@@ -54,4 +54,14 @@ public class GlobalExceptionHandler {
     public ResponseEntity<String> handleException(UserExistException exc) {
         return new ResponseEntity<>(exc.getMessage(), HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler
+    public ResponseEntity<String> handleException(PaymentGatewayException exc) {
+        return new ResponseEntity<>(exc.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<String> handleException(OrderStreamUnavailableException exc) {
+        return new ResponseEntity<>(exc.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
 }
@@ -0,0 +1,50 @@
+package com.nothing.stella.miscellaneous;
+
+// Opens after a run of consecutive failures and rejects calls for a cool-down
+// period, then lets a single trial call through to decide whether to close again
+public class CircuitBreaker {
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private int failures;
+    private boolean open;
+    private boolean probing;
+    private long openedAt;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    public synchronized boolean allowRequest() {
+        if (!open) {
+            return true;
+        }
+        // half open: exactly one caller gets to try once the cool-down is over
+        if (!probing && System.currentTimeMillis() - openedAt >= openMillis) {
+            probing = true;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized void recordSuccess() {
+        failures = 0;
+        open = false;
+        probing = false;
+    }
+
+    public synchronized void recordFailure() {
+        failures++;
+        if (probing || failures >= failureThreshold) {
+            open = true;
+            probing = false;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    public synchronized boolean isOpen() {
+        return open;
+    }
+}
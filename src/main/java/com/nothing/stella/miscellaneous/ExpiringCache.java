@@ -0,0 +1,71 @@
+package com.nothing.stella.miscellaneous;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Bounded LRU map whose entries also expire some time after they were written
+public class ExpiringCache<K, V> {
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final long ttlMillis;
+    private final Map<K, Entry<V>> entries;
+
+    public ExpiringCache(int capacity, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    // null when missing or expired
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        put(key, value, ttlMillis);
+    }
+
+    // per entry time to live, e.g. shorter for negative entries
+    public synchronized void put(K key, V value, long ttl) {
+        entries.put(key, new Entry<V>(value, System.currentTimeMillis() + ttl));
+    }
+
+    // an expired entry counts as absent; false when a live entry was kept
+    public synchronized boolean putIfAbsent(K key, V value, long ttl) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+            return false;
+        }
+        put(key, value, ttl);
+        return true;
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
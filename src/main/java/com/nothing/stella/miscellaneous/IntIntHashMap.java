@@ -0,0 +1,109 @@
+package com.nothing.stella.miscellaneous;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Open addressing int -> int map with linear probing, keys and values live in
+// two flat arrays so lookups never box. Key 0 marks a free slot and cannot be stored
+public class IntIntHashMap {
+
+    private static final int FREE = 0;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public IntIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max((int) (expectedSize / LOAD_FACTOR), 16) - 1) << 1;
+        this.keys = new int[capacity];
+        this.values = new int[capacity];
+    }
+
+    public int get(int key, int defaultValue) {
+        lock.readLock().lock();
+        try {
+            int mask = keys.length - 1;
+            for (int index = mix(key) & mask; keys[index] != FREE; index = (index + 1) & mask) {
+                if (keys[index] == key) {
+                    return values[index];
+                }
+            }
+            return defaultValue;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(int key, int value) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("key " + FREE + " is reserved");
+        }
+        lock.writeLock().lock();
+        try {
+            if (size + 1 > keys.length * LOAD_FACTOR) {
+                resize(keys.length << 1);
+            }
+            insert(keys, values, key, value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            Arrays.fill(keys, FREE);
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ----------------------------------------------------------------
+    // HELPER FUNCTIONS FOR TABLE
+    // ----------------------------------------------------------------
+    private void insert(int[] targetKeys, int[] targetValues, int key, int value) {
+        int mask = targetKeys.length - 1;
+        int index = mix(key) & mask;
+        while (targetKeys[index] != FREE) {
+            if (targetKeys[index] == key) {
+                targetValues[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        targetKeys[index] = key;
+        targetValues[index] = value;
+        size++;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                insert(keys, values, oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    // sequential ids would otherwise fill neighbouring slots and build long probe runs
+    private static int mix(int key) {
+        int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -1,7 +1,15 @@
 package com.nothing.stella.miscellaneous;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 
+import com.nothing.stella.exception.InvalidCursorException;
+
 public class Miscellaneous {
 
     public static boolean isValidEmail(String email) {
@@ -19,6 +27,77 @@ public class Miscellaneous {
         return pattern.matcher(number).find();
     }
 
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<String>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        // split on anything that is not a letter or digit, lowercase like the db collation
+        for (String token : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // padded character trigrams of every token, "$ab", "abc", ..., "yz$"
+    public static Set<String> trigrams(List<String> tokens) {
+        Set<String> grams = new HashSet<String>();
+        for (String token : tokens) {
+            String padded = "$" + token + "$";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    public static int editDistance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = (a.charAt(i - 1) == b.charAt(j - 1)) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    public static String encodeCursor(Object... parts) {
+        StringBuilder cursorBuilder = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                cursorBuilder.append(":");
+            }
+            cursorBuilder.append(parts[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(cursorBuilder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decodeCursor(String cursor, int expectedParts) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(":", -1);
+            if (parts.length != expectedParts) {
+                throw new InvalidCursorException("Error: Invalid cursor");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Error: Invalid cursor");
+        }
+    }
+
     public static boolean isValidPassword(String password) {
         if (password == null || password.isEmpty()) {
             return false; // Password cannot be empty
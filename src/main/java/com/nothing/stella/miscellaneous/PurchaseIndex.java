@@ -0,0 +1,36 @@
+package com.nothing.stella.miscellaneous;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Products bought per user for the most recently active users; the least
+// recently used user is evicted once capacity is reached
+public class PurchaseIndex {
+
+    private final Map<Integer, SortedIntList> products;
+
+    public PurchaseIndex(int capacity) {
+        this.products = new LinkedHashMap<Integer, SortedIntList>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, SortedIntList> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public synchronized boolean contains(int userId, int productId) {
+        SortedIntList bought = products.get(userId);
+        return bought != null && bought.contains(productId);
+    }
+
+    public synchronized void add(int userId, int productId) {
+        products.computeIfAbsent(userId, id -> new SortedIntList()).add(productId);
+    }
+
+    public synchronized void remove(int userId, int productId) {
+        SortedIntList bought = products.get(userId);
+        if (bought != null && bought.remove(productId) && bought.isEmpty()) {
+            products.remove(userId);
+        }
+    }
+}
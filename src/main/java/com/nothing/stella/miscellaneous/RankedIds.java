@@ -0,0 +1,79 @@
+package com.nothing.stella.miscellaneous;
+
+import java.util.Arrays;
+
+// Product ids with a relevance score, ordered by (score desc, id asc) so a
+// page can be located by seeking on the (score, id) of the previous page
+public class RankedIds {
+
+    private final int[] ids;
+    private final double[] scores;
+
+    // scores are kept at a fixed resolution so that (score, id) packs into one sortable long
+    private static final double SCORE_SCALE = 1_000_000;
+
+    public RankedIds(int[] ids, double[] scores) {
+        long[] keys = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            long quantized = scaled(scores[i]);
+            // ascending key order = score desc, then id asc
+            keys[i] = ((Integer.MAX_VALUE - quantized) << 32) | (ids[i] & 0xffffffffL);
+        }
+        Arrays.sort(keys);
+
+        this.ids = new int[ids.length];
+        this.scores = new double[ids.length];
+        for (int i = 0; i < keys.length; i++) {
+            this.ids[i] = (int) keys[i];
+            this.scores[i] = (Integer.MAX_VALUE - (keys[i] >>> 32)) / SCORE_SCALE;
+        }
+    }
+
+    // the score as it reads back from getScore, so cursors compare equal to it
+    public static double quantize(double score) {
+        return scaled(score) / SCORE_SCALE;
+    }
+
+    private static long scaled(double score) {
+        return Math.min(Math.max(Math.round(score * SCORE_SCALE), 0), Integer.MAX_VALUE);
+    }
+
+    // every id gets the same score, i.e. plain id order
+    public static RankedIds of(int[] sortedIds, double score) {
+        double[] scores = new double[sortedIds.length];
+        Arrays.fill(scores, score);
+        return new RankedIds(sortedIds, scores);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    public double getScore(int index) {
+        return scores[index];
+    }
+
+    // index of the first entry ranked after (score, id)
+    public int seek(double score, int id) {
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(scores[mid], ids[mid], score, id) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(double scoreA, int idA, double scoreB, int idB) {
+        int byScore = Double.compare(scoreB, scoreA);
+        return (byScore != 0) ? byScore : Integer.compare(idA, idB);
+    }
+}
@@ -0,0 +1,35 @@
+package com.nothing.stella.miscellaneous;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Set of the most recent keys with a fixed capacity; the oldest key is evicted
+// first. Lookups are lock free, only inserts take the ring lock.
+public class RecentSet {
+
+    private final Set<String> keys = ConcurrentHashMap.newKeySet();
+    private final String[] ring;
+    private int next;
+
+    public RecentSet(int capacity) {
+        this.ring = new String[capacity];
+    }
+
+    public boolean contains(String key) {
+        return keys.contains(key);
+    }
+
+    public void add(String key) {
+        synchronized (ring) {
+            if (!keys.add(key)) {
+                return;
+            }
+            String evicted = ring[next];
+            if (evicted != null) {
+                keys.remove(evicted);
+            }
+            ring[next] = key;
+            next = (next + 1) % ring.length;
+        }
+    }
+}
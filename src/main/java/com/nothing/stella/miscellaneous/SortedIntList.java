@@ -0,0 +1,119 @@
+package com.nothing.stella.miscellaneous;
+
+import java.util.Arrays;
+
+// Growable array of distinct ints kept in ascending order (used as posting list)
+public class SortedIntList {
+
+    private int[] values;
+    private int size;
+
+    public SortedIntList() {
+        this.values = new int[4];
+        this.size = 0;
+    }
+
+    public SortedIntList(int[] sortedValues) {
+        this.values = sortedValues.length == 0 ? new int[4] : sortedValues;
+        this.size = sortedValues.length;
+    }
+
+    public boolean add(int value) {
+        // ids mostly arrive in ascending order, so appending is the fast path
+        if (size == 0 || values[size - 1] < value) {
+            ensureCapacity(size + 1);
+            values[size++] = value;
+            return true;
+        }
+
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) {
+            return false;
+        }
+        index = -index - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+        return true;
+    }
+
+    public boolean remove(int value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    public boolean contains(int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    public int get(int index) {
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            values = Arrays.copyOf(values, Math.max(capacity, values.length + (values.length >> 1)));
+        }
+    }
+
+    // ----------------------------------------------------------------
+    // SET OPERATIONS ON SORTED ARRAYS
+    // ----------------------------------------------------------------
+    public static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[k++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    public static int[] union(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                result[k++] = a[i++];
+            } else if (a[i] > b[j]) {
+                result[k++] = b[j++];
+            } else {
+                result[k++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        while (i < a.length) {
+            result[k++] = a[i++];
+        }
+        while (j < b.length) {
+            result[k++] = b[j++];
+        }
+        return Arrays.copyOf(result, k);
+    }
+}
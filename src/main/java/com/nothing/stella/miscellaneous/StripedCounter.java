@@ -0,0 +1,105 @@
+package com.nothing.stella.miscellaneous;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Non-negative counter split over several cells so concurrent threads mostly
+// CAS different cache lines instead of all contending on a single value
+public class StripedCounter {
+
+    // ints per stripe, keeps neighbouring stripes on separate cache lines
+    private static final int PADDING = 16;
+
+    private final int stripes;
+    private final AtomicIntegerArray cells;
+    private final long createdAt;
+
+    public StripedCounter(int stripes, int initial) {
+        this.stripes = stripes;
+        this.cells = new AtomicIntegerArray(stripes * PADDING);
+        this.createdAt = System.currentTimeMillis();
+        spread(Math.max(initial, 0));
+    }
+
+    public boolean tryAcquire(int amount) {
+        int start = home();
+        for (int i = 0; i < stripes; i++) {
+            int index = ((start + i) % stripes) * PADDING;
+            while (true) {
+                int current = cells.get(index);
+                if (current < amount) {
+                    break;
+                }
+                if (cells.compareAndSet(index, current, current - amount)) {
+                    return true;
+                }
+            }
+        }
+        // no single stripe holds enough
+        return tryAcquirePooled(amount);
+    }
+
+    public void release(int amount) {
+        cells.addAndGet(home() * PADDING, amount);
+    }
+
+    public int sum() {
+        int total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.get(i * PADDING);
+        }
+        return total;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    // collects the amount stripe by stripe. Stripes are only ever decremented by what is
+    // taken, never emptied wholesale, so concurrent acquires and sum() keep seeing the
+    // rest; the pooled path is serialized so two partial collections cannot starve each other
+    private synchronized boolean tryAcquirePooled(int amount) {
+        if (sum() < amount) {
+            return false;
+        }
+
+        int[] taken = new int[stripes];
+        int total = 0;
+        for (int i = 0; i < stripes && total < amount; i++) {
+            int index = i * PADDING;
+            while (true) {
+                int current = cells.get(index);
+                int take = Math.min(current, amount - total);
+                if (take <= 0) {
+                    break;
+                }
+                if (cells.compareAndSet(index, current, current - take)) {
+                    taken[i] = take;
+                    total += take;
+                    break;
+                }
+            }
+        }
+        if (total >= amount) {
+            return true;
+        }
+
+        // fast path acquires got there first, the total really is short now
+        for (int i = 0; i < stripes; i++) {
+            if (taken[i] > 0) {
+                cells.addAndGet(i * PADDING, taken[i]);
+            }
+        }
+        return false;
+    }
+
+    private void spread(int total) {
+        int share = total / stripes;
+        for (int i = 0; i < stripes; i++) {
+            cells.addAndGet(i * PADDING, (i == 0) ? share + total % stripes : share);
+        }
+    }
+
+    private int home() {
+        return (int) (Thread.currentThread().getId() % stripes);
+    }
+}
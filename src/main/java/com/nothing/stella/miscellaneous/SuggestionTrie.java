@@ -0,0 +1,234 @@
+package com.nothing.stella.miscellaneous;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Prefix trie where every node keeps its own top-N completions, so a lookup
+// is a walk down the prefix plus a copy of at most N entries
+public class SuggestionTrie {
+
+    public static class Suggestion {
+        private final String text;
+        private final String type;
+        private long weight;
+        private int references;
+
+        private Suggestion(String text, String type) {
+            this.text = text;
+            this.type = type;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+    }
+
+    private static class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private List<Suggestion> terminals;
+        private Suggestion[] top = new Suggestion[0];
+
+        private Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return (index >= 0) ? children[index] : null;
+        }
+
+        private Node addChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            index = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            Node node = new Node();
+            newKeys[index] = key;
+            newChildren[index] = node;
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+
+        private void removeChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        private boolean isEmpty() {
+            return keys.length == 0 && (terminals == null || terminals.isEmpty());
+        }
+    }
+
+    // higher weight first, then alphabetical
+    private static final Comparator<Suggestion> RANKING = Comparator
+            .comparingLong(Suggestion::getWeight).reversed()
+            .thenComparing(Suggestion::getText);
+
+    private final int capacity;
+    private final Node root = new Node();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public SuggestionTrie(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public List<Suggestion> complete(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            String key = prefix.toLowerCase();
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return new ArrayList<Suggestion>();
+            }
+            return new ArrayList<Suggestion>(Arrays.asList(node.top).subList(0, Math.min(limit, node.top.length)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // registers one more reference to (text, type) and adds its weight
+    public void add(String text, String type, long weight) {
+        lock.writeLock().lock();
+        try {
+            Node[] path = path(text, true);
+            Node terminal = path[path.length - 1];
+            if (terminal.terminals == null) {
+                terminal.terminals = new ArrayList<Suggestion>(1);
+            }
+            Suggestion suggestion = find(terminal, text, type);
+            if (suggestion == null) {
+                suggestion = new Suggestion(text, type);
+                terminal.terminals.add(suggestion);
+            }
+            suggestion.references++;
+            suggestion.weight += weight;
+            rebuild(text, path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // drops one reference to (text, type) and its weight, the entry goes away with its last reference
+    public void remove(String text, String type, long weight) {
+        lock.writeLock().lock();
+        try {
+            Node[] path = path(text, false);
+            if (path == null) {
+                return;
+            }
+            Node terminal = path[path.length - 1];
+            Suggestion suggestion = find(terminal, text, type);
+            if (suggestion == null) {
+                return;
+            }
+            suggestion.references--;
+            suggestion.weight -= weight;
+            if (suggestion.references <= 0) {
+                terminal.terminals.remove(suggestion);
+            }
+            rebuild(text, path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addWeight(String text, String type, long weight) {
+        lock.writeLock().lock();
+        try {
+            Node[] path = path(text, false);
+            if (path == null) {
+                return;
+            }
+            Suggestion suggestion = find(path[path.length - 1], text, type);
+            if (suggestion == null) {
+                return;
+            }
+            suggestion.weight += weight;
+            rebuild(text, path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ----------------------------------------------------------------
+    // HELPER FUNCTIONS FOR TRIE
+    // ----------------------------------------------------------------
+    private Node[] path(String text, boolean create) {
+        String key = text.toLowerCase();
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            Node next = create ? path[i].addChild(key.charAt(i)) : path[i].child(key.charAt(i));
+            if (next == null) {
+                return null;
+            }
+            path[i + 1] = next;
+        }
+        return path;
+    }
+
+    private Suggestion find(Node node, String text, String type) {
+        if (node.terminals == null) {
+            return null;
+        }
+        for (Suggestion suggestion : node.terminals) {
+            if (suggestion.text.equals(text) && suggestion.type.equals(type)) {
+                return suggestion;
+            }
+        }
+        return null;
+    }
+
+    // only the nodes on the changed path can hold the changed entry, so
+    // recomputing their top-N bottom up from their children is enough
+    private void rebuild(String text, Node[] path) {
+        String key = text.toLowerCase();
+        for (int depth = path.length - 1; depth >= 0; depth--) {
+            Node node = path[depth];
+
+            List<Suggestion> candidates = new ArrayList<Suggestion>();
+            if (node.terminals != null) {
+                candidates.addAll(node.terminals);
+            }
+            for (Node child : node.children) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            candidates.sort(RANKING);
+            node.top = candidates.subList(0, Math.min(capacity, candidates.size())).toArray(new Suggestion[0]);
+
+            // prune branches that no longer lead to any entry
+            if (depth > 0 && node.isEmpty()) {
+                path[depth - 1].removeChild(key.charAt(depth - 1));
+            }
+        }
+    }
+}
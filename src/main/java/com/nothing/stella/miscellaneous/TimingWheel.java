@@ -0,0 +1,122 @@
+package com.nothing.stella.miscellaneous;
+
+import java.util.Arrays;
+
+// Hierarchical timing wheel of int ids. Scheduling is O(1): an entry lands in the
+// coarsest level its delay needs, and is cascaded one level down each time the
+// wheel below completes a turn, until it fires from level 0 on its exact tick.
+// There is no cancel, callers re-check the entry's state when it fires.
+public class TimingWheel {
+
+    // primitive slot storage, no object per scheduled entry
+    private static class Bucket {
+        private int[] ids = new int[8];
+        private long[] deadlines = new long[8];
+        private int size;
+
+        private void add(int id, long deadline) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                deadlines = Arrays.copyOf(deadlines, size * 2);
+            }
+            ids[size] = id;
+            deadlines[size] = deadline;
+            size++;
+        }
+    }
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final int levels;
+    private final Bucket[][] wheels;
+    // span in ticks of one slot per level: 1, wheelSize, wheelSize^2, ...
+    private final long[] spans;
+
+    private long currentTick;
+    private Bucket overdue = new Bucket();
+    private int size;
+
+    public TimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levels = levels;
+        this.wheels = new Bucket[levels][wheelSize];
+        this.spans = new long[levels + 1];
+        this.spans[0] = 1;
+        for (int level = 1; level <= levels; level++) {
+            this.spans[level] = this.spans[level - 1] * wheelSize;
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    public synchronized void schedule(int id, long deadlineMillis) {
+        long deadlineTick = deadlineMillis / tickMillis;
+        if (deadlineTick <= currentTick) {
+            // this tick's slot is already drained, hand it out on the next advance
+            overdue.add(id, deadlineTick);
+        } else {
+            place(id, deadlineTick);
+        }
+        size++;
+    }
+
+    // moves the wheel up to now and returns every id whose deadline has passed
+    public synchronized int[] advance(long nowMillis) {
+        Bucket expired = overdue;
+        overdue = new Bucket();
+
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            // cascade coarser levels whose slot starts at this tick, top down
+            for (int level = levels - 1; level >= 1; level--) {
+                if (currentTick % spans[level] == 0) {
+                    int index = (int) ((currentTick / spans[level]) % wheelSize);
+                    Bucket bucket = wheels[level][index];
+                    if (bucket != null) {
+                        wheels[level][index] = null;
+                        for (int i = 0; i < bucket.size; i++) {
+                            place(bucket.ids[i], bucket.deadlines[i]);
+                        }
+                    }
+                }
+            }
+
+            int index = (int) (currentTick % wheelSize);
+            Bucket bucket = wheels[0][index];
+            if (bucket != null) {
+                wheels[0][index] = null;
+                for (int i = 0; i < bucket.size; i++) {
+                    expired.add(bucket.ids[i], bucket.deadlines[i]);
+                }
+            }
+        }
+
+        size -= expired.size;
+        return Arrays.copyOf(expired.ids, expired.size);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // deadlineTick >= currentTick; entries cascaded onto the current tick land in the
+    // level 0 slot that advance drains right after the cascade
+    private void place(int id, long deadlineTick) {
+        long delay = deadlineTick - currentTick;
+        int level = 0;
+        while (level < levels - 1 && delay >= spans[level + 1]) {
+            level++;
+        }
+        // beyond the top level the entry waits in its furthest slot and is re-placed on cascade
+        long slotTick = Math.min(deadlineTick, currentTick + spans[levels] - 1);
+        int index = (int) ((slotTick / spans[level]) % wheelSize);
+        Bucket bucket = wheels[level][index];
+        if (bucket == null) {
+            bucket = new Bucket();
+            wheels[level][index] = bucket;
+        }
+        bucket.add(id, deadlineTick);
+    }
+}
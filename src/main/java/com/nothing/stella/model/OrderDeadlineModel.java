@@ -0,0 +1,15 @@
+package com.nothing.stella.model;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderDeadlineModel {
+    private int orderId;
+    private Date orderDate;
+}
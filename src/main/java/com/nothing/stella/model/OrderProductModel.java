@@ -0,0 +1,17 @@
+package com.nothing.stella.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderProductModel {
+    private int orderId;
+    private int productId;
+    private String name;
+    private double price;
+    private int quantity;
+    private String image;
+}
@@ -0,0 +1,14 @@
+package com.nothing.stella.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusEventModel {
+    private int orderId;
+    private int orderItemId; // 0 when the event is about the order itself
+    private String status;
+}
@@ -0,0 +1,16 @@
+package com.nothing.stella.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageViewModel<T> {
+    private List<T> items;
+    // null when there are no more pages
+    private String nextCursor;
+}
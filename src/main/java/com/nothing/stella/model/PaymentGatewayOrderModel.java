@@ -0,0 +1,13 @@
+package com.nothing.stella.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaymentGatewayOrderModel {
+    private String id;
+    private String status;
+}
@@ -0,0 +1,20 @@
+package com.nothing.stella.model;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBrowseViewModel {
+    private List<ProductShortViewModel> items;
+    private String nextCursor;
+    // facet value -> number of products matching the other selected filters
+    private Map<String, Integer> categories;
+    private Map<String, Integer> priceBuckets;
+    private Map<Integer, Integer> stores;
+}
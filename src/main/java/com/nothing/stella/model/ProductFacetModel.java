@@ -0,0 +1,16 @@
+package com.nothing.stella.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductFacetModel {
+    private int productId;
+    private int userId;
+    private int categoryId;
+    private double price;
+    private boolean active;
+}
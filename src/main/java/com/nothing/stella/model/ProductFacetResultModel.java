@@ -0,0 +1,18 @@
+package com.nothing.stella.model;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetResultModel {
+    private int[] productIds;
+    // facet value -> number of products matching the other selected filters
+    private Map<Integer, Integer> categories;
+    private Map<String, Integer> priceBuckets;
+    private Map<Integer, Integer> stores;
+}
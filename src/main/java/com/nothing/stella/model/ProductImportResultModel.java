@@ -0,0 +1,16 @@
+package com.nothing.stella.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportResultModel {
+    private int row;
+    private int productId;
+    private String name;
+    private String status;
+    private String message;
+}
@@ -0,0 +1,21 @@
+package com.nothing.stella.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportRowModel {
+    private String name;
+    private String description;
+    private double price;
+    private int stock;
+    private String category;
+    private boolean active;
+    // entry names inside the image archive
+    private List<String> images;
+}
@@ -0,0 +1,14 @@
+package com.nothing.stella.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductNameAndSellerModel {
+    private int productId;
+    private int userId;
+    private String name;
+}
@@ -0,0 +1,15 @@
+package com.nothing.stella.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductPriceModel {
+    private int productId;
+    private double price;
+    private int stock;
+    private boolean active;
+}
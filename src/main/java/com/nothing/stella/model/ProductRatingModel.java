@@ -0,0 +1,14 @@
+package com.nothing.stella.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductRatingModel {
+    private int productId;
+    private Long ratingSum;
+    private Long ratingCount;
+}
@@ -10,6 +10,7 @@ import lombok.NoArgsConstructor;
 public class ProductShortViewModel {
     private int id;
     private String name;
-    private String description;
     private double price;
+    private String category;
+    private String image;
 }
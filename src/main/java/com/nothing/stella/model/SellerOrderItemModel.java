@@ -0,0 +1,18 @@
+package com.nothing.stella.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerOrderItemModel {
+    private int orderItemId;
+    private int orderId;
+    private int productId;
+    private String status;
+    private int quantity;
+    private double totalPrice;
+    private int sellerId;
+}
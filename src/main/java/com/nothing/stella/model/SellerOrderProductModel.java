@@ -0,0 +1,18 @@
+package com.nothing.stella.model;
+
+import java.util.Date;
+
+import com.nothing.stella.entity.OrderItem;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerOrderProductModel {
+    private OrderItem orderItem;
+    private String name;
+    private Date orderDate;
+}
@@ -0,0 +1,35 @@
+package com.nothing.stella.repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import com.nothing.stella.entity.EmailOutbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // rows claimed by another dispatcher are skipped instead of waited on
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM EmailOutbox e WHERE e.status = 'pending' AND e.nextAttemptAt <= ?1 ORDER BY e.id")
+    List<EmailOutbox> claimDue(Date now, Pageable pageable);
+
+    @Query("SELECT e.id FROM EmailOutbox e WHERE e.status IN ('sent', 'failed') AND e.completedAt < ?1")
+    List<Long> findCompletedIdsBefore(Date cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM EmailOutbox e WHERE e.id IN ?1")
+    int deleteByIdIn(Collection<Long> ids);
+}
@@ -1,10 +1,19 @@
 package com.nothing.stella.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.nothing.stella.entity.OrderItem;
+import com.nothing.stella.model.OrderProductModel;
+import com.nothing.stella.model.ProductSalesModel;
+import com.nothing.stella.model.SellerOrderItemModel;
+import com.nothing.stella.model.SellerOrderProductModel;
+import com.nothing.stella.model.SellerOrderViewModel;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,8 +23,78 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Integer> {
 
     List<OrderItem> findByProductId(int productId);
 
-    @Query("SELECT oi.productId FROM OrderItem oi WHERE oi.orderItemId = ?1")
-    Optional<Integer> findProductIdByOrderItemId(int orderItemId);
+    // seller of the item's product in one round trip
+    @Query("SELECT p.userId FROM OrderItem oi JOIN Product p ON p.id = oi.productId WHERE oi.orderItemId = ?1")
+    Optional<Integer> findSellerIdByOrderItemId(int orderItemId);
 
     Boolean existsByOrderIdAndProductId(int orderId, int productId);
+
+    // semi-join over the user's paid orders, stops at the first matching item
+    @Query("SELECT CASE WHEN EXISTS (SELECT oi.orderItemId FROM OrderItem oi, Order o WHERE o.orderId = oi.orderId "
+            + "AND o.userId = ?1 AND oi.productId = ?2 AND o.status != 'created' AND o.status != 'creating' "
+            + "AND oi.status != 'canceled') THEN true ELSE false END")
+    boolean existsPaidByUserIdAndProductId(int userId, int productId);
+
+    // units sold per product over every order that went through payment
+    @Query("SELECT new com.nothing.stella.model.ProductSalesModel(oi.productId, SUM(oi.quantity)) FROM OrderItem oi, Order o WHERE o.orderId = oi.orderId AND o.status != 'created' AND o.status != 'creating' AND oi.status != 'canceled' GROUP BY oi.productId")
+    List<ProductSalesModel> findPaidSalesGroupByProductId();
+
+    // quantities still held by the given orders, per product; orders placed before
+    // checkout reserved stock hold nothing
+    @Query("SELECT new com.nothing.stella.model.ProductSalesModel(oi.productId, SUM(oi.quantity)) "
+            + "FROM OrderItem oi JOIN Order o ON o.orderId = oi.orderId "
+            + "WHERE oi.orderId IN ?1 AND o.stockReserved = true AND oi.status != 'canceled' "
+            + "GROUP BY oi.productId")
+    List<ProductSalesModel> findHeldQuantityByOrderIdIn(Collection<Integer> orderIds);
+
+    // items of many orders with the product fields the order views show, in one join
+    @Query("SELECT new com.nothing.stella.model.OrderProductModel(oi.orderId, p.id, p.name, p.price, oi.quantity, p.image1) "
+            + "FROM OrderItem oi, Product p WHERE p.id = oi.productId AND oi.orderId IN ?1 ORDER BY oi.orderItemId")
+    List<OrderProductModel> findOrderProductsByOrderIdIn(Collection<Integer> orderIds);
+
+    // every item of the seller's products in paid orders, newest first, in one join
+    @Query("SELECT new com.nothing.stella.model.SellerOrderProductModel(oi, p.name, o.orderDate) "
+            + "FROM OrderItem oi, Product p, Order o WHERE p.userId = ?1 AND oi.productId = p.id "
+            + "AND o.orderId = oi.orderId AND o.status != 'created' AND o.status != 'creating' "
+            + "ORDER BY o.orderDate DESC, oi.orderItemId DESC")
+    List<SellerOrderProductModel> findPaidSellerOrders(int sellerId);
+
+    // same feed limited to [from, until)
+    @Query("SELECT new com.nothing.stella.model.SellerOrderProductModel(oi, p.name, o.orderDate) "
+            + "FROM OrderItem oi, Product p, Order o WHERE p.userId = ?1 AND oi.productId = p.id "
+            + "AND o.orderId = oi.orderId AND o.status != 'created' AND o.status != 'creating' "
+            + "AND o.orderDate >= ?2 AND o.orderDate < ?3 "
+            + "ORDER BY o.orderDate DESC, oi.orderItemId DESC")
+    List<SellerOrderProductModel> findPaidSellerOrdersBetween(int sellerId, Date from, Date until,
+            Pageable pageable);
+
+    // keyset page after (orderDate, orderItemId) of the previous page
+    @Query("SELECT new com.nothing.stella.model.SellerOrderProductModel(oi, p.name, o.orderDate) "
+            + "FROM OrderItem oi, Product p, Order o WHERE p.userId = ?1 AND oi.productId = p.id "
+            + "AND o.orderId = oi.orderId AND o.status != 'created' AND o.status != 'creating' "
+            + "AND o.orderDate >= ?2 AND o.orderDate < ?3 "
+            + "AND (o.orderDate < ?4 OR (o.orderDate = ?4 AND oi.orderItemId < ?5)) "
+            + "ORDER BY o.orderDate DESC, oi.orderItemId DESC")
+    List<SellerOrderProductModel> findPaidSellerOrdersBetweenBefore(int sellerId, Date from, Date until,
+            Date orderDate, int orderItemId, Pageable pageable);
+
+    // items together with the seller owning their product, ownership of a whole batch in one join
+    @Query("SELECT new com.nothing.stella.model.SellerOrderItemModel(oi.orderItemId, oi.orderId, oi.productId, "
+            + "oi.status, oi.quantity, oi.totalPrice, p.userId) FROM OrderItem oi, Product p "
+            + "WHERE p.id = oi.productId AND oi.orderItemId IN ?1")
+    List<SellerOrderItemModel> findSellerOrderItemsByOrderItemIdIn(Collection<Integer> orderItemIds);
+
+    @Query("SELECT new com.nothing.stella.model.SellerOrderViewModel(oi, p.name, o.orderDate) "
+            + "FROM OrderItem oi, Product p, Order o WHERE p.id = oi.productId AND o.orderId = oi.orderId "
+            + "AND oi.orderItemId IN ?1 ORDER BY oi.orderItemId")
+    List<SellerOrderViewModel> findSellerOrderViewsByOrderItemIdIn(Collection<Integer> orderItemIds);
+
+    // moves only the items still in the expected status, the count tells if any changed meanwhile
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OrderItem oi SET oi.status = ?3 WHERE oi.orderItemId IN ?1 AND oi.status = ?2")
+    int updateStatusByOrderItemIdIn(Collection<Integer> orderItemIds, String fromStatus, String toStatus);
+
+    @Modifying
+    @Query("DELETE FROM OrderItem oi WHERE oi.orderId IN ?1")
+    int deleteByOrderIdIn(Collection<Integer> orderIds);
 }
@@ -1,14 +1,21 @@
 package com.nothing.stella.repository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.nothing.stella.entity.Order;
+import com.nothing.stella.model.OrderDeadlineModel;
+
+import jakarta.persistence.LockModeType;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Integer> {
@@ -19,10 +26,55 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
 
     List<Order> findByUserId(int userId);
 
+    // newest first; statuses are whitelisted so orders still being created never show,
+    // and unpaid orders past the cutoff are left out
+    @Query("SELECT o FROM Order o WHERE o.userId = ?1 "
+            + "AND (o.status IN ('paid', 'processing', 'shipped', 'delivered', 'canceled', 'cancelled') "
+            + "OR (o.status = 'created' AND o.orderDate > ?2)) "
+            + "ORDER BY o.orderDate DESC, o.orderId DESC")
+    List<Order> findVisibleByUserId(int userId, Date expiryCutoff, Pageable pageable);
+
+    // keyset page after (orderDate, orderId) of the previous page
+    @Query("SELECT o FROM Order o WHERE o.userId = ?1 "
+            + "AND (o.status IN ('paid', 'processing', 'shipped', 'delivered', 'canceled', 'cancelled') "
+            + "OR (o.status = 'created' AND o.orderDate > ?2)) "
+            + "AND (o.orderDate < ?3 OR (o.orderDate = ?3 AND o.orderId < ?4)) "
+            + "ORDER BY o.orderDate DESC, o.orderId DESC")
+    List<Order> findVisibleByUserIdBefore(int userId, Date expiryCutoff, Date orderDate, int orderId,
+            Pageable pageable);
+
     @Query("SELECT o.orderDate FROM Order o WHERE o.orderId = ?1 AND o.status != 'created' AND o.status != 'creating'")
     Optional<Date> findPaidOrderDateByOrderId(int orderId);
 
     @Query("SELECT o.orderId FROM Order o WHERE o.userId = ?1")
     List<Integer> findOrderIdByUserId(int userId);
 
+    // unpaid orders placed after the given date, keyset paged by id
+    @Query("SELECT o FROM Order o WHERE o.status = 'created' AND o.orderDate > ?1 AND o.orderId > ?2 "
+            + "ORDER BY o.orderId")
+    List<Order> findPendingAfter(Date since, int orderId, Pageable pageable);
+
+    @Query("SELECT new com.nothing.stella.model.OrderDeadlineModel(o.orderId, o.orderDate) FROM Order o "
+            + "WHERE o.status = 'created' AND o.orderId > ?1 ORDER BY o.orderId")
+    List<OrderDeadlineModel> findPendingDeadlinesAfter(int orderId, Pageable pageable);
+
+    // unlocked read, the payment lookups that follow run outside of any transaction
+    @Query("SELECT o FROM Order o WHERE o.orderId IN ?1 AND o.status = 'created'")
+    List<Order> findUnpaidByOrderIdIn(Collection<Integer> orderIds);
+
+    // row locks keep a concurrent payment from landing between the check and the delete
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.orderId IN ?1 AND o.status = 'created'")
+    List<Order> lockUnpaidByOrderIdIn(Collection<Integer> orderIds);
+
+    // only an unpaid order moves to paid, a repeat finds nothing to update
+    @Modifying
+    @Query("UPDATE Order o SET o.status = 'paid', o.razorpayPaymentId = ?2 WHERE o.razorpayId = ?1 "
+            + "AND o.status = 'created'")
+    int markPaidByRazorpayId(String razorpayId, String razorpayPaymentId);
+
+    @Modifying
+    @Query("DELETE FROM Order o WHERE o.orderId IN ?1")
+    int deleteByOrderIdIn(Collection<Integer> orderIds);
+
 }
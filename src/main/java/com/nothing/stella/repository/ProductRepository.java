@@ -1,14 +1,27 @@
 package com.nothing.stella.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.nothing.stella.entity.Product;
+import com.nothing.stella.model.ProductFacetModel;
 import com.nothing.stella.model.ProductIdAndNameModel;
+import com.nothing.stella.model.ProductNameAndSellerModel;
+import com.nothing.stella.model.ProductOwnerModel;
+import com.nothing.stella.model.ProductPriceModel;
+import com.nothing.stella.model.ProductShortViewModel;
+import com.nothing.stella.model.ProductTextModel;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Integer> {
@@ -22,12 +35,68 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
 
     List<Product> findByUserId(int userId);
 
+    @Query("SELECT p.name FROM Product p WHERE p.userId = ?1")
+    List<String> findNamesByUserId(int userId);
+
+    // cursor streaming: the driver fetches rows in chunks instead of buffering the whole result
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT p FROM Product p WHERE p.userId = ?1 ORDER BY p.id")
+    Stream<Product> streamByUserId(int userId);
+
+    // keyset page over a store, ordered by (price, product_id)
+    @Query("SELECT new com.nothing.stella.model.ProductShortViewModel(p.id, p.name, p.price, c.category, p.image1) FROM Product p JOIN ProductCategory c ON c.id = p.categoryId WHERE p.userId = ?1 AND (p.price > ?2 OR (p.price = ?2 AND p.id > ?3)) ORDER BY p.price, p.id")
+    List<ProductShortViewModel> findShortByUserIdAfter(int userId, double price, int id, Pageable pageable);
+
+    @Query("SELECT new com.nothing.stella.model.ProductShortViewModel(p.id, p.name, p.price, c.category, p.image1) FROM Product p JOIN ProductCategory c ON c.id = p.categoryId WHERE p.id IN ?1")
+    List<ProductShortViewModel> findShortByIdIn(Collection<Integer> ids);
+
     @Query("SELECT p.price FROM Product p WHERE p.id = ?1")
     Optional<Double> findPriceById(int id);
 
+    // atomic, never lets stock go below zero
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - ?2 WHERE p.id = ?1 AND p.stock >= ?2")
+    int reserveStock(int id, int quantity);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + ?2 WHERE p.id = ?1")
+    int releaseStock(int id, int quantity);
+
+    // a seller restock, replaces whatever reservations have left
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = ?2 WHERE p.id = ?1")
+    int updateStockById(int id, int stock);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Product p SET p.active = ?2 WHERE p.id = ?1")
+    int updateActiveById(int id, boolean active);
+
+    @Query("SELECT new com.nothing.stella.model.ProductPriceModel(p.id, p.price, p.stock, p.active) "
+            + "FROM Product p WHERE p.id IN ?1")
+    List<ProductPriceModel> findPricesByIdIn(Collection<Integer> ids);
+
     @Query("SELECT new com.nothing.stella.model.ProductIdAndNameModel(p.id, p.name) FROM Product p WHERE p.userId = ?1")
     List<ProductIdAndNameModel> findProductIdAndNameByUserId(int userId);
 
     @Query("SELECT p.userId FROM Product p WHERE p.id = ?1")
     Optional<Integer> findUserIdByProductId(int productId);
+
+    @Query("SELECT new com.nothing.stella.model.ProductOwnerModel(p.id, p.userId) FROM Product p "
+            + "WHERE p.id > ?1 ORDER BY p.id")
+    List<ProductOwnerModel> findOwnersAfter(int id, Pageable pageable);
+
+    @Query("SELECT new com.nothing.stella.model.ProductIdAndNameModel(p.id, p.name) FROM Product p WHERE p.active = true ORDER BY p.id")
+    List<ProductIdAndNameModel> findActiveProductIdAndName();
+
+    @Query("SELECT new com.nothing.stella.model.ProductTextModel(p.id, p.name, p.description) FROM Product p WHERE p.active = true ORDER BY p.id")
+    List<ProductTextModel> findActiveProductText();
+
+    @Query("SELECT new com.nothing.stella.model.ProductNameAndSellerModel(p.id, p.userId, p.name) FROM Product p WHERE p.active = true")
+    List<ProductNameAndSellerModel> findActiveProductNameAndSeller();
+
+    @Query("SELECT new com.nothing.stella.model.ProductFacetModel(p.id, p.userId, p.categoryId, p.price, p.active) FROM Product p")
+    List<ProductFacetModel> findAllFacets();
 }
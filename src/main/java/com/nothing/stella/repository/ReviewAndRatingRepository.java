@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.nothing.stella.entity.ReviewAndRating;
+import com.nothing.stella.model.ProductRatingModel;
 
 @Repository
 public interface ReviewAndRatingRepository extends JpaRepository<ReviewAndRating, Integer> {
@@ -20,4 +21,7 @@ public interface ReviewAndRatingRepository extends JpaRepository<ReviewAndRating
 
     List<ReviewAndRating> findByUserId(int userId);
 
+    @Query("SELECT new com.nothing.stella.model.ProductRatingModel(rr.productId, SUM(rr.rating), COUNT(rr)) FROM ReviewAndRating rr GROUP BY rr.productId")
+    List<ProductRatingModel> findRatingSummaryGroupByProductId();
+
 }
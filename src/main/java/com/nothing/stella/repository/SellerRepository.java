@@ -1,11 +1,13 @@
 package com.nothing.stella.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
 import com.nothing.stella.entity.Seller;
+import com.nothing.stella.model.SellerIdAndStoreNameModel;
 
 public interface SellerRepository extends JpaRepository<Seller, Integer> {
 
@@ -15,4 +17,7 @@ public interface SellerRepository extends JpaRepository<Seller, Integer> {
     Boolean existsByStoreName(String storeName);
 
     Boolean existsByAddress(String address);
+
+    @Query("SELECT new com.nothing.stella.model.SellerIdAndStoreNameModel(s.userId, s.storeName) FROM Seller s")
+    List<SellerIdAndStoreNameModel> findAllStoreNames();
 }
@@ -47,15 +47,20 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/api/testbuyer").hasRole("BUYER")
                 // PRODUCT ENDPOINTS
                 .requestMatchers(HttpMethod.POST, "/api/products").hasRole("SELLER")
+                .requestMatchers(HttpMethod.POST, "/api/products/import").hasRole("SELLER")
                 .requestMatchers(HttpMethod.PUT, "/api/products").hasRole("SELLER")
                 .requestMatchers(HttpMethod.DELETE, "/api/products/de-activate").hasRole("SELLER")
                 .requestMatchers(HttpMethod.POST, "/api/products/activate").hasRole("SELLER")
                 // ORDER ENDPOINTS
                 .requestMatchers(HttpMethod.GET, "/api/orders/track").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/orders/track/stream").permitAll()
                 // SELLER DASHBOARD ENDPOINTS
                 .requestMatchers(HttpMethod.GET, "/api/sellers/dashboard").hasRole("SELLER")
+                .requestMatchers(HttpMethod.GET, "/api/sellers/dashboard/orders/feed").hasRole("SELLER")
                 .requestMatchers(HttpMethod.GET, "/api/sellers/dashboard/products").hasRole("SELLER")
+                .requestMatchers(HttpMethod.GET, "/api/sellers/dashboard/products/export").hasRole("SELLER")
                 .requestMatchers(HttpMethod.POST, "/api/sellers/dashboard/update-order-status").hasRole("SELLER")
+                .requestMatchers(HttpMethod.POST, "/api/sellers/dashboard/update-order-statuses").hasRole("SELLER")
                 .anyRequest().authenticated());
 
         // transfering exception control to JWTAuthenticationEntryPoint
@@ -2,5 +2,8 @@ package com.nothing.stella.services;
 
 public interface EmailService {
 
+    // queues the email in the outbox, it is delivered in the background
     public void sendEmail(String to, String subject, String content);
+
+    public void dispatchPending();
 }
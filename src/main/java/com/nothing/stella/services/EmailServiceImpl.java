@@ -1,23 +1,159 @@
 package com.nothing.stella.services;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.nothing.stella.entity.EmailOutbox;
+import com.nothing.stella.repository.EmailOutboxRepository;
+
+import jakarta.annotation.PostConstruct;
 
 @Service
 public class EmailServiceImpl implements EmailService {
     @Autowired
     private JavaMailSender mailSender;
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${email.smtp.connect-timeout-ms:5000}")
+    private long connectTimeout;
+    @Value("${email.smtp.timeout-ms:10000}")
+    private long timeout;
+    @Value("${email.outbox.retention-days:7}")
+    private int retentionDays;
 
+    private static final int DISPATCH_BATCH_SIZE = 50;
+    private static final int MAX_ATTEMPTS = 8;
+    private static final long BASE_RETRY_DELAY = 30 * 1000; // 30 seconds
+    private static final long MAX_RETRY_DELAY = 60 * 60 * 1000; // 1 hour
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailServiceImpl.class);
+
+    // JavaMail waits forever on a silent server by default, which would hold the dispatch
+    // transaction and its claimed rows. Explicit spring.mail.properties values still win
+    @PostConstruct
+    public void init() {
+        if (mailSender instanceof JavaMailSenderImpl) {
+            Properties properties = ((JavaMailSenderImpl) mailSender).getJavaMailProperties();
+            properties.putIfAbsent("mail.smtp.connectiontimeout", String.valueOf(connectTimeout));
+            properties.putIfAbsent("mail.smtp.timeout", String.valueOf(timeout));
+            properties.putIfAbsent("mail.smtp.writetimeout", String.valueOf(timeout));
+        }
+    }
+
+    // joins the caller's transaction when there is one, so the email is only
+    // queued if the business change that triggered it commits
     @Override
     public void sendEmail(String to, String subject, String content) {
-        SimpleMailMessage message = new SimpleMailMessage();
+        emailOutboxRepository.save(new EmailOutbox(to, subject, content));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${email.dispatch.interval-ms:2000}")
+    public void dispatchPending() {
+        int dispatched;
+        do {
+            Integer count = transactionTemplate.execute(status -> dispatchBatch());
+            dispatched = (count != null) ? count : 0;
+        } while (dispatched == DISPATCH_BATCH_SIZE);
+    }
+
+    // sent and failed rows are only kept for a while, deleted in small
+    // transactions so the dispatcher is never blocked for long
+    @Scheduled(fixedDelayString = "${email.purge.interval-ms:3600000}")
+    public void purgeCompleted() {
+        Date cutoff = new Date(System.currentTimeMillis() - retentionDays * 24L * 60 * 60 * 1000);
+        int purged = 0;
+        int deleted;
+        do {
+            Integer count = transactionTemplate.execute(status -> {
+                List<Long> ids = emailOutboxRepository.findCompletedIdsBefore(cutoff,
+                        PageRequest.of(0, PURGE_BATCH_SIZE));
+                return ids.isEmpty() ? 0 : emailOutboxRepository.deleteByIdIn(ids);
+            });
+            deleted = (count != null) ? count : 0;
+            purged += deleted;
+        } while (deleted == PURGE_BATCH_SIZE);
+
+        if (purged > 0) {
+            logger.info("Purged " + purged + " sent or failed emails from the outbox");
+        }
+    }
+
+    // claims a batch, sends it over a single SMTP connection and records the outcome
+    private int dispatchBatch() {
+        List<EmailOutbox> emails = emailOutboxRepository.claimDue(new Date(),
+                PageRequest.of(0, DISPATCH_BATCH_SIZE));
+        if (emails.isEmpty()) {
+            return 0;
+        }
+
+        List<SimpleMailMessage> messages = new ArrayList<SimpleMailMessage>(emails.size());
+        for (EmailOutbox email : emails) {
+            SimpleMailMessage message = new SimpleMailMessage();
+
+            message.setTo(email.getRecipient());
+            message.setSubject(email.getSubject());
+            message.setText(email.getContent());
+
+            messages.add(message);
+        }
+
+        Map<Object, Exception> failedMessages = null;
+        boolean allFailed = false;
+        try {
+            mailSender.send(messages.toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            failedMessages = e.getFailedMessages();
+            // a failed connection reports every message of the batch as failed
+            allFailed = failedMessages.isEmpty() || failedMessages.size() >= messages.size();
+            logger.error("Error sending email batch: " + e.getMessage(), e);
+        } catch (MailException e) {
+            allFailed = true;
+            logger.error("Error sending email batch: " + e.getMessage(), e);
+        }
 
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(content);
+        Date now = new Date();
+        for (int i = 0; i < emails.size(); i++) {
+            EmailOutbox email = emails.get(i);
+            boolean failed = allFailed || (failedMessages != null && failedMessages.containsKey(messages.get(i)));
+            if (!failed) {
+                email.setStatus("sent");
+                email.setCompletedAt(now);
+                continue;
+            }
 
-        mailSender.send(message);
+            email.setAttempts(email.getAttempts() + 1);
+            if (email.getAttempts() >= MAX_ATTEMPTS) {
+                email.setStatus("failed");
+                email.setCompletedAt(now);
+            } else {
+                // exponential backoff: 30s, 1m, 2m, ... capped at an hour
+                long delay = Math.min(BASE_RETRY_DELAY << (email.getAttempts() - 1), MAX_RETRY_DELAY);
+                email.setNextAttemptAt(new Date(now.getTime() + delay));
+            }
+        }
+        // stop for this run when the server is unreachable
+        return allFailed ? 0 : emails.size();
     }
 }
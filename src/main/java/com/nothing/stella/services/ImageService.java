@@ -1,6 +1,7 @@
 package com.nothing.stella.services;
 
 import java.util.List;
+import java.util.zip.ZipFile;
 
 import org.springframework.web.multipart.MultipartFile;
 
@@ -9,6 +10,8 @@ public interface ImageService {
 
     String save(int userId, MultipartFile image, String destinationPath);
 
+    List<String> save(int userId, String name, ZipFile archive, List<String> entryNames, String destinationPath);
+
     List<String> update(int userId, String oldName, String newName, List<MultipartFile> images, String destinationPath);
 
     List<String> renameDirectory(int userId, String oldName, String newName, String destinationPath);
@@ -2,9 +2,12 @@ package com.nothing.stella.services;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -110,6 +113,55 @@ public class ImageServiceImpl implements ImageService {
         return imageUrl;
     }
 
+    @Override
+    public List<String> save(int userId, String name, ZipFile archive, List<String> entryNames,
+            String destinationPath) {
+        List<String> imageUrls = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < entryNames.size(); i++) {
+                // Validate filename extension
+                String extension = FilenameUtils.getExtension(entryNames.get(i));
+                if (!isValidImageExtension(extension)) {
+                    throw new InvalidImageExtentionException("Error: Invalid Image Extention " + extension);
+                }
+
+                ZipEntry entry = archive.getEntry(entryNames.get(i));
+                if (entry == null || entry.isDirectory()) {
+                    throw new ImageException("Error: Image " + entryNames.get(i) + " not found in archive");
+                }
+
+                // Construct destination file path
+                StringBuilder filePathBuilder = new StringBuilder();
+                filePathBuilder.append(destinationPath).append("/")
+                        .append(userId).append("/")
+                        .append(name).append("/")
+                        .append(i).append(".").append(extension);
+                String filePath = filePathBuilder.toString();
+
+                File destinationFile = new File(filePath);
+                File productNameDirectory = destinationFile.getParentFile();
+
+                // Create parent directories if they don't exist
+                if (!productNameDirectory.exists()) {
+                    productNameDirectory.mkdirs();
+                }
+
+                // Copy straight from the archive, the entry is never held in memory
+                try (InputStream inputStream = archive.getInputStream(entry)) {
+                    FileUtils.copyInputStreamToFile(inputStream, destinationFile);
+                }
+
+                // Add the file URL to the list
+                imageUrls.add(filePath);
+            }
+        } catch (IOException e) {
+            throw new ImageException("Error occurred while saving image: ", e);
+        }
+
+        return imageUrls;
+    }
+
     private boolean isValidImageExtension(String extension) {
         // Define valid image extensions
         List<String> validExtensions = Arrays.asList("jpg", "jpeg", "png", "gif", "bmp");
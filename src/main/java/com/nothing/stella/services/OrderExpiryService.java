@@ -0,0 +1,9 @@
+package com.nothing.stella.services;
+
+import java.util.Date;
+
+public interface OrderExpiryService {
+    void schedule(int orderId, Date orderDate);
+
+    void expire();
+}
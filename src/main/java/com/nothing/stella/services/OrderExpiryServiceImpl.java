@@ -0,0 +1,195 @@
+package com.nothing.stella.services;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.nothing.stella.entity.Order;
+import com.nothing.stella.exception.PaymentGatewayRejectedException;
+import com.nothing.stella.miscellaneous.TimingWheel;
+import com.nothing.stella.model.CapturedPaymentModel;
+import com.nothing.stella.model.OrderDeadlineModel;
+import com.nothing.stella.model.ProductSalesModel;
+import com.nothing.stella.repository.OrderItemRepository;
+import com.nothing.stella.repository.OrderRepository;
+
+import jakarta.annotation.PostConstruct;
+
+@Service
+public class OrderExpiryServiceImpl implements OrderExpiryService {
+
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private StockReservationService stockReservationService;
+    @Autowired
+    private OrderStatusStreamService orderStatusStreamService;
+    @Autowired
+    private OrderStatusCacheService orderStatusCacheService;
+    @Autowired
+    private PaymentGateway paymentGateway;
+    // lazy, the order service schedules its new orders here
+    @Lazy
+    @Autowired
+    private OrderService orderService;
+
+    private static final long EXPIRATION_TIME_LIMIT = 30 * 60 * 1000; // 30 minutes
+    private static final long RETRY_DELAY = 60 * 1000; // 1 minute
+    private static final int SEED_BATCH_SIZE = 10000;
+    // orders looked up, locked and deleted together
+    private static final int DELETE_BATCH_SIZE = 100;
+
+    // 1 second ticks, 64 slots over 4 levels covers deadlines up to ~194 days out
+    private final TimingWheel timingWheel = new TimingWheel(1000, 64, 4, System.currentTimeMillis());
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExpiryServiceImpl.class);
+
+    // load the deadline of every unpaid order, already passed deadlines fire on the first tick
+    @PostConstruct
+    public void seed() {
+        int afterId = 0;
+        while (true) {
+            List<OrderDeadlineModel> deadlines = orderRepository.findPendingDeadlinesAfter(afterId,
+                    PageRequest.of(0, SEED_BATCH_SIZE));
+            for (OrderDeadlineModel deadline : deadlines) {
+                schedule(deadline.getOrderId(), deadline.getOrderDate());
+            }
+            if (deadlines.size() < SEED_BATCH_SIZE) {
+                break;
+            }
+            afterId = deadlines.get(deadlines.size() - 1).getOrderId();
+        }
+        logger.info("Order expiry seeded with " + timingWheel.size() + " pending orders");
+    }
+
+    @Override
+    public void schedule(int orderId, Date orderDate) {
+        timingWheel.schedule(orderId, orderDate.getTime() + EXPIRATION_TIME_LIMIT);
+    }
+
+    @Override
+    @Scheduled(fixedRate = 1000)
+    public void expire() {
+        int[] orderIds = timingWheel.advance(System.currentTimeMillis());
+
+        for (int from = 0; from < orderIds.length; from += DELETE_BATCH_SIZE) {
+            int to = Math.min(from + DELETE_BATCH_SIZE, orderIds.length);
+            List<Integer> batch = new ArrayList<Integer>(to - from);
+            for (int i = from; i < to; i++) {
+                batch.add(orderIds[i]);
+            }
+
+            List<Integer> expirableIds = new ArrayList<Integer>();
+            List<CapturedPaymentModel> captured = new ArrayList<CapturedPaymentModel>();
+            try {
+                checkPayments(batch, expirableIds, captured);
+                List<Integer> expiredIds = transactionTemplate.execute(status -> deleteUnpaid(expirableIds));
+                for (int orderId : expiredIds) {
+                    orderStatusCacheService.evict(orderId);
+                    orderStatusStreamService.close(orderId, "expired");
+                }
+            } catch (Exception e) {
+                logger.error("Error expiring orders: " + e.getMessage(), e);
+                // try the batch again later instead of dropping it from the wheel; its
+                // orders are looked up again, deleted or paid ones are skipped then
+                retry(batch);
+            }
+
+            confirm(captured);
+        }
+    }
+
+    // asks the gateway about every unpaid order of the batch, outside of any transaction and
+    // without row locks. An order whose payment the gateway has captured while the callback got
+    // lost goes to captured, one it has no payment for to expirable. An order the gateway could
+    // not answer for is retried on its own, the rest of the batch goes ahead
+    private void checkPayments(List<Integer> orderIds, List<Integer> expirable, List<CapturedPaymentModel> captured) {
+        for (Order order : orderRepository.findUnpaidByOrderIdIn(orderIds)) {
+            String paymentId;
+            try {
+                paymentId = findCapturedPaymentId(order.getRazorpayId());
+            } catch (Exception e) {
+                // nothing is deleted without asking the gateway
+                logger.error("Error looking up payment of order " + order.getOrderId() + ": " + e.getMessage(), e);
+                retry(List.of(order.getOrderId()));
+                continue;
+            }
+            if (paymentId != null) {
+                captured.add(new CapturedPaymentModel(order.getOrderId(), order.getRazorpayId(), paymentId));
+            } else {
+                expirable.add(order.getOrderId());
+            }
+        }
+    }
+
+    // a short transaction: the row locks are taken after the gateway lookups and the status is
+    // checked again under them, so an order paid in the meantime is left alone. Returns the ids
+    // of the deleted orders
+    private List<Integer> deleteUnpaid(List<Integer> orderIds) {
+        if (orderIds.isEmpty()) {
+            return new ArrayList<Integer>();
+        }
+        List<Integer> unpaidIds = new ArrayList<Integer>(orderIds.size());
+        for (Order order : orderRepository.lockUnpaidByOrderIdIn(orderIds)) {
+            unpaidIds.add(order.getOrderId());
+        }
+        if (unpaidIds.isEmpty()) {
+            return unpaidIds;
+        }
+
+        // stock held by the expired orders goes back in the same transaction as the delete
+        for (ProductSalesModel held : orderItemRepository.findHeldQuantityByOrderIdIn(unpaidIds)) {
+            stockReservationService.release(held.getProductId(), held.getQuantity().intValue());
+        }
+        orderItemRepository.deleteByOrderIdIn(unpaidIds);
+        orderRepository.deleteByOrderIdIn(unpaidIds);
+        return unpaidIds;
+    }
+
+    private void retry(List<Integer> orderIds) {
+        long retryAt = System.currentTimeMillis() + RETRY_DELAY;
+        for (int orderId : orderIds) {
+            timingWheel.schedule(orderId, retryAt);
+        }
+    }
+
+    // an unavailable gateway propagates, the order is retried later
+    private String findCapturedPaymentId(String razorpayId) {
+        if (razorpayId == null) {
+            return null;
+        }
+        try {
+            return paymentGateway.findCapturedPaymentId(razorpayId);
+        } catch (PaymentGatewayRejectedException e) {
+            // the gateway does not know the order, so nothing can have been paid on it
+            logger.warn("Payment gateway rejected lookup of " + razorpayId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // marked paid after the delete committed, so the row locks are not held through the
+    // confirmation email. A failed confirmation is retried through the wheel
+    private void confirm(List<CapturedPaymentModel> captured) {
+        for (CapturedPaymentModel payment : captured) {
+            try {
+                orderService.confirmPayment(payment.getRazorpayId(), payment.getRazorpayPaymentId());
+            } catch (Exception e) {
+                logger.error("Error confirming payment of order " + payment.getOrderId() + ": " + e.getMessage(), e);
+                retry(List.of(payment.getOrderId()));
+            }
+        }
+    }
+}
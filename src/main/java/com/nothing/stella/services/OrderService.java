@@ -2,9 +2,12 @@ package com.nothing.stella.services;
 
 import com.nothing.stella.model.OrderRequest;
 import com.nothing.stella.model.OrderViewModel;
+import com.nothing.stella.model.PageViewModel;
 import com.nothing.stella.model.PaymentCallbackRequest;
 import com.nothing.stella.model.SellerOrderViewModel;
+import com.nothing.stella.model.UpdateOrderItemStatusModal;
 
+import java.util.Date;
 import java.util.List;
 
 import com.nothing.stella.entity.Order;
@@ -23,10 +26,15 @@ public interface OrderService {
 
     List<OrderViewModel> fetchOrders(String reference);
 
+    PageViewModel<OrderViewModel> fetchOrders(String reference, String cursor, int size);
+
     String fetchOrderStatus(int orderId);
 
     Order checkRazorpayStatus(Order order);
 
+    // marks the order of a captured payment paid, false when it already was
+    boolean confirmPayment(String razorpayId, String paymentId);
+
     void emailSender(int userId, OrderViewModel orderViewModel);
 
     OrderViewModel fetchOrder(int orderId);
@@ -36,6 +44,9 @@ public interface OrderService {
     // ----------------------------------------------------------------
     List<SellerOrderViewModel> fetchAllOrders(int sellerId);
 
+    PageViewModel<SellerOrderViewModel> fetchSellerOrders(int sellerId, Date from, Date until, String cursor,
+            int size);
+
     Boolean verifySellerAccessByOrderItemId(int sellerId, int orderItemId);
 
     void updateOrderItemStatusToAccepted(int orderItemId);
@@ -44,6 +55,8 @@ public interface OrderService {
 
     void updateOrderItemStatusToShipped(int orderItemId);
 
+    List<SellerOrderViewModel> updateOrderItemStatuses(int sellerId, List<UpdateOrderItemStatusModal> requests);
+
     Boolean isApplicableForReview(int userId, int productId);
 
 }
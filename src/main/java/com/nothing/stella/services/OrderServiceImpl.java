@@ -1,52 +1,67 @@
 package com.nothing.stella.services;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
-import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.nothing.stella.entity.Address;
 import com.nothing.stella.entity.Cart;
 import com.nothing.stella.entity.CartItem;
 import com.nothing.stella.entity.Order;
 import com.nothing.stella.entity.OrderItem;
-import com.nothing.stella.entity.Product;
 import com.nothing.stella.entity.User;
 import com.nothing.stella.exception.AddressNotFoundException;
 import com.nothing.stella.exception.InvalidCartIdException;
+import com.nothing.stella.exception.InvalidCursorException;
 import com.nothing.stella.exception.InvalidOrderIdException;
 import com.nothing.stella.exception.InvalidOrderItemIdException;
+import com.nothing.stella.exception.InvalidOrderItemStatusException;
 import com.nothing.stella.exception.InvalidProductIdException;
 import com.nothing.stella.exception.InvalidProductQuantityException;
 import com.nothing.stella.exception.InvalidUpdateOrderItemRequestException;
 import com.nothing.stella.exception.OrderNotFoundException;
+import com.nothing.stella.exception.PaymentGatewayException;
+import com.nothing.stella.exception.PaymentGatewayRejectedException;
 import com.nothing.stella.exception.UnAuthorizedPaymentCallbackException;
 import com.nothing.stella.exception.UnAuthorizedUserException;
 import com.nothing.stella.exception.UnknownErrorException;
-import com.nothing.stella.exception.UserIdNotFoundException;
 import com.nothing.stella.exception.UserNotFoundException;
 import com.nothing.stella.miscellaneous.EmailTemplate;
+import com.nothing.stella.miscellaneous.Miscellaneous;
+import com.nothing.stella.miscellaneous.PurchaseIndex;
+import com.nothing.stella.miscellaneous.RecentSet;
 import com.nothing.stella.model.OrderRequest;
+import com.nothing.stella.model.OrderProductModel;
 import com.nothing.stella.model.OrderViewModel;
+import com.nothing.stella.model.PageViewModel;
 import com.nothing.stella.model.PaymentCallbackRequest;
-import com.nothing.stella.model.ProductIdAndNameModel;
+import com.nothing.stella.model.PaymentGatewayOrderModel;
 import com.nothing.stella.model.OrderPaymentRequest;
 import com.nothing.stella.model.ProductOrderRequest;
 import com.nothing.stella.model.ProductOrderViewModel;
+import com.nothing.stella.model.ProductPriceModel;
+import com.nothing.stella.model.SellerOrderItemModel;
+import com.nothing.stella.model.SellerOrderProductModel;
 import com.nothing.stella.model.SellerOrderViewModel;
+import com.nothing.stella.model.UpdateOrderItemStatusModal;
 import com.nothing.stella.repository.OrderItemRepository;
 import com.nothing.stella.repository.OrderRepository;
-import com.razorpay.Payment;
-import com.razorpay.RazorpayClient;
-import com.razorpay.RazorpayException;
-import com.razorpay.Utils;
 
 @Service
 public class OrderServiceImpl implements OrderService {
@@ -65,15 +80,42 @@ public class OrderServiceImpl implements OrderService {
     private EmailService emailService;
     @Autowired
     private CartService cartService;
+    @Autowired
+    private ProductSuggestionService productSuggestionService;
+    @Autowired
+    private ProductFeatureService productFeatureService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
-    private RazorpayClient razorpayClient;
-    private static final long EXPIRATION_TIME_LIMIT = 30 * 60 * 1000; // 30 minutes
-
-    @Value("${razorpay.key.id}")
-    private String razorpayKey;
+    @Autowired
+    private PaymentGateway paymentGateway;
+    @Autowired
+    private OrderExpiryService orderExpiryService;
+    @Autowired
+    private StockReservationService stockReservationService;
+    @Autowired
+    private ProductOwnershipService productOwnershipService;
+    @Autowired
+    private OrderStatusStreamService orderStatusStreamService;
+    @Autowired
+    private OrderStatusCacheService orderStatusCacheService;
 
-    @Value("${razorpay.secret.key}")
-    private String razorpaySecret;
+    private static final long EXPIRATION_TIME_LIMIT = 30 * 60 * 1000; // 30 minutes
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int ORDER_ID_BATCH_SIZE = 1000;
+    private static final int MAX_STATUS_UPDATES = 1000;
+
+    // target order item status -> the status it can be reached from
+    private static final Map<String, String> STATUS_TRANSITIONS = Map.of(
+            "accepted", "waiting",
+            "canceled", "waiting",
+            "shipped", "accepted");
+
+    // payment ids handled lately, lets repeated callbacks return before any verification or query
+    private final RecentSet recentPayments = new RecentSet(100000);
+    // products bought by recently active users, answers review eligibility without a query
+    private final PurchaseIndex purchases = new PurchaseIndex(100000);
 
     private static final Logger logger = LoggerFactory.getLogger(OrderServiceImpl.class);
 
@@ -97,75 +139,49 @@ public class OrderServiceImpl implements OrderService {
             throw new UnAuthorizedUserException("Error: accress denied, you are not allowed to access this address");
         }
 
-        List<Double> productPrices = new ArrayList<Double>();
-
-        // verify product Id and create product prices list
-        for (ProductOrderRequest productRequest : productsOrderRequest) {
-            if (productRequest.getQuantity() >= 1) {
-                int productId = productRequest.getProductId();
-                Double price = productService.findPriceById(productId);
-                if (price == 0.0) {
-                    throw new InvalidProductIdException("Error: Product not found with id " + productId);
-                } else {
-                    productPrices.add(price);
-                }
-            } else {
+        // merge repeated product ids up front: sorted distinct ids with summed quantities
+        int[] requestedIds = new int[productsOrderRequest.size()];
+        for (int i = 0; i < requestedIds.length; i++) {
+            if (productsOrderRequest.get(i).getQuantity() < 1) {
                 throw new InvalidProductQuantityException("Error: Quantity must be one or more");
             }
+            requestedIds[i] = productsOrderRequest.get(i).getProductId();
+        }
+        int[] productIds = Arrays.stream(requestedIds).sorted().distinct().toArray();
+        int[] quantities = new int[productIds.length];
+        for (ProductOrderRequest productRequest : productsOrderRequest) {
+            quantities[Arrays.binarySearch(productIds, productRequest.getProductId())] += productRequest.getQuantity();
         }
 
-        Order order = null;
-        List<OrderItem> orderItems = new ArrayList<OrderItem>();
-        try {
-            // Create a new dummy order object
-            order = new Order(userId, 0, "creating", address.toString(), "null");
-            order = orderRepository.save(order); // Save the order object
-            int orderId = order.getOrderId(); // Get the order id
-
-            Double totalPrice = 0.0;
-            // create Order Items in DataBase and find total price
-            for (int i = 0; i < productsOrderRequest.size(); i++) {
-                int productId = productsOrderRequest.get(i).getProductId();
-                int quantity = productsOrderRequest.get(i).getQuantity();
-                Double price = productPrices.get(i);
-
-                OrderItem orderItem = new OrderItem(orderId, productId, quantity, price); // create a new orderItem
-                orderItem = orderItemRepository.save(orderItem); // save the orderItem
-                orderItems.add(orderItem);
-
-                totalPrice += orderItem.getTotalPrice(); // fetch the total price and add to the totalPrice
+        // resolve every price, stock and active flag in one query
+        List<Integer> productIdList = new ArrayList<Integer>(productIds.length);
+        for (int productId : productIds) {
+            productIdList.add(productId);
+        }
+        double[] prices = new double[productIds.length];
+        boolean[] found = new boolean[productIds.length];
+        for (ProductPriceModel product : productService.findPricesByIds(productIdList)) {
+            int index = Arrays.binarySearch(productIds, product.getProductId());
+            if (!product.isActive()) {
+                throw new InvalidProductIdException("Error: Product with id " + product.getProductId()
+                        + " is not available");
+            } else if (product.getStock() < quantities[index]) {
+                throw new InvalidProductQuantityException("Error: Only " + product.getStock()
+                        + " left in stock for product with id " + product.getProductId());
             }
-
-            // create order in razorPay
-            JSONObject razorpayOrderRequest = new JSONObject();
-            razorpayOrderRequest.put("amount", totalPrice * 100); // amount in paisa
-            razorpayOrderRequest.put("currency", "INR");
-            razorpayOrderRequest.put("receipt", reference);
-
-            // create razorpay Client instance
-            razorpayClient = new RazorpayClient(razorpayKey, razorpaySecret);
-
-            // create razorpay Order
-            com.razorpay.Order razorpayOrder = razorpayClient.orders.create(razorpayOrderRequest);
-
-            // fetch razorpay id, status and total price and set to product order
-            order.setTotalAmount(totalPrice);
-            order.setRazorpayId(razorpayOrder.get("id"));
-            order.setStatus(razorpayOrder.get("status"));
-            order = orderRepository.save(order); // update order to DataBase
-
-            return new OrderPaymentRequest(order, razorpayKey); // return OrderResponse object
+            prices[index] = product.getPrice();
+            found[index] = true;
         }
-        // Delete order from DataBase any issue occurred
-        catch (Exception e) {
 
-            for (OrderItem orderItem : orderItems) {
-                orderItemRepository.delete(orderItem); // delete the orderItems from DataBase
+        List<OrderItem> orderItems = new ArrayList<OrderItem>(productIds.length);
+        for (int i = 0; i < productIds.length; i++) {
+            if (!found[i]) {
+                throw new InvalidProductIdException("Error: Product not found with id " + productIds[i]);
             }
-            orderRepository.delete(order); // delete the order from DataBase
-
-            throw new UnknownErrorException("Error: error creating Order {" + e.getMessage() + "}");
+            orderItems.add(new OrderItem(0, productIds[i], quantities[i], prices[i]));
         }
+
+        return placeOrder(reference, userId, address, orderItems);
     }
 
     @Override
@@ -191,94 +207,43 @@ public class OrderServiceImpl implements OrderService {
             throw new InvalidCartIdException("Error: you are not allowed to access this cart");
         }
 
-        Order order = null;
-        List<OrderItem> orderItems = new ArrayList<OrderItem>();
-        try {
-            // Create a new dummy order object
-            order = new Order(userId, 0, "creating", address.toString(), "null");
-            order = orderRepository.save(order); // Save the order object
-            int orderId = order.getOrderId(); // Get the order id
-
-            Double totalPrice = 0.0;
-            // create Order Items in DataBase and find total price
-            for (CartItem cartItem : cartItems) {
-                int productId = cartItem.getProductId();
-                int quantity = cartItem.getQuantity();
-                Double price = cartItem.getPrice();
-
-                OrderItem orderItem = new OrderItem(orderId, productId, quantity, price); // create a new orderItem
-                orderItem = orderItemRepository.save(orderItem); // save the orderItem
-                orderItems.add(orderItem);
-
-                totalPrice += orderItem.getTotalPrice(); // fetch the total price and add to the totalPrice
-            }
-
-            // create order in razorPay
-            JSONObject razorpayOrderRequest = new JSONObject();
-            razorpayOrderRequest.put("amount", totalPrice * 100); // amount in paisa
-            razorpayOrderRequest.put("currency", "INR");
-            razorpayOrderRequest.put("receipt", reference);
-
-            // create razorpay Client instance
-            razorpayClient = new RazorpayClient(razorpayKey, razorpaySecret);
-
-            // create razorpay Order
-            com.razorpay.Order razorpayOrder = razorpayClient.orders.create(razorpayOrderRequest);
-
-            // fetch razorpay id, status and total price and set to product order
-            order.setTotalAmount(totalPrice);
-            order.setRazorpayId(razorpayOrder.get("id"));
-            order.setStatus(razorpayOrder.get("status"));
-            order = orderRepository.save(order); // update order to DataBase
-
-            return new OrderPaymentRequest(order, razorpayKey); // return OrderResponse object
+        List<OrderItem> orderItems = new ArrayList<OrderItem>(cartItems.size());
+        for (CartItem cartItem : cartItems) {
+            orderItems.add(new OrderItem(0, cartItem.getProductId(), cartItem.getQuantity(), cartItem.getPrice()));
         }
-        // Delete order from DataBase any issue occurred
-        catch (Exception e) {
 
-            for (OrderItem orderItem : orderItems) {
-                orderItemRepository.delete(orderItem); // delete the orderItems from DataBase
-            }
-            orderRepository.delete(order); // delete the order from DataBase
-
-            throw new UnknownErrorException("Error: error creating Order {" + e.getMessage() + "}");
-        }
+        return placeOrder(reference, userId, address, orderItems);
     }
 
     @Override
     public void handlePaymentCallback(PaymentCallbackRequest request) {
-        try {
-            // fetch callback information
-            JSONObject options = new JSONObject();
-            options.put("razorpay_order_id", request.getRazorpay_order_id());
-            options.put("razorpay_payment_id", request.getRazorpay_payment_id());
-            options.put("razorpay_signature", request.getRazorpay_signature());
-
-            // verify from razorpay Api
-            boolean status = Utils.verifyPaymentSignature(options, razorpaySecret);
-
-            if (status) {
-                Optional<Order> optionalOrder = orderRepository.findByRazorpayId(request.getRazorpay_order_id());
-
-                // update status / payment id to database
-                if (optionalOrder.isPresent()) {
-                    Order order = optionalOrder.get();
+        String paymentId = request.getRazorpay_payment_id();
+        if (paymentId == null || paymentId.isEmpty()) {
+            throw new UnAuthorizedPaymentCallbackException("Error: unauthorized payment callback");
+        }
 
-                    order.setStatus("paid");
-                    order.setRazorpayPaymentId(request.getRazorpay_payment_id());
+        // retried or double submitted callback, already handled
+        if (recentPayments.contains(paymentId)) {
+            return;
+        }
 
-                    orderRepository.save(order); // update order status to paid in DataBase
+        // verify the callback signature
+        boolean status = paymentGateway.verifySignature(request.getRazorpay_order_id(), paymentId,
+                request.getRazorpay_signature());
 
-                    // Send email to the customer
-                    emailSender(order.getUserId(), fetchOrder(order.getOrderId()));
-                } else {
+        if (status) {
+            try {
+                if (!markPaid(request.getRazorpay_order_id(), paymentId)
+                        && !orderRepository.findByRazorpayId(request.getRazorpay_order_id()).isPresent()) {
                     throw new OrderNotFoundException("Error: order not found");
                 }
-            } else {
-                throw new UnAuthorizedPaymentCallbackException("Error: unauthorized payment callback");
+            } catch (DataIntegrityViolationException e) {
+                // the unique payment id already settled an order
+                logger.warn("Duplicate payment callback for payment " + paymentId);
             }
-        } catch (RazorpayException e) {
-            throw new UnknownErrorException("Error: error creating Razorpay client");
+            recentPayments.add(paymentId);
+        } else {
+            throw new UnAuthorizedPaymentCallbackException("Error: unauthorized payment callback");
         }
     }
 
@@ -286,46 +251,34 @@ public class OrderServiceImpl implements OrderService {
     public List<OrderViewModel> fetchOrders(String reference) {
         int userId = userService.findUserIdByReference(reference);
 
-        List<OrderViewModel> orderViewModels = new ArrayList<OrderViewModel>();
-        List<Order> orders = orderRepository.findByUserId(userId);
-        Date currentDate = new Date();
-
-        for (Order order : orders) {
-            // create order Expiry data/time
-            Date orderExpiry = new Date(order.getOrderDate().getTime() + EXPIRATION_TIME_LIMIT);
-            List<OrderItem> orderItems = orderItemRepository.findByOrderId(order.getOrderId());
-
-            // Check for payments are completed or not completed
-            if (order.getStatus().equals("created")) {
-                order = checkRazorpayStatus(order);
-                // continue for orders which are not created yet
-                if (order == null) {
-                    continue;
-                }
-            }
-
-            // check if the order is not expired
-            if (orderExpiry.after(currentDate) || !order.getStatus().equals("created")) {
-
-                List<ProductOrderViewModel> products = new ArrayList<ProductOrderViewModel>();
+        // payment status is kept current by the reconciler, expired unpaid orders are left out by the query
+        List<Order> orders = orderRepository.findVisibleByUserId(userId, expiryCutoff(), Pageable.unpaged());
+        return convertToOrderViewModels(orders);
+    }
 
-                for (OrderItem orderItem : orderItems) {
-                    Product product = productService.findById(orderItem.getProductId());
-                    products.add(new ProductOrderViewModel(product, orderItem.getQuantity()));
-                }
+    @Override
+    public PageViewModel<OrderViewModel> fetchOrders(String reference, String cursor, int size) {
+        int userId = userService.findUserIdByReference(reference);
+        size = (size < 1) ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
 
-                orderViewModels.add(new OrderViewModel(order, products));
-            }
-            // delete expired order and order items
-            else {
-                for (OrderItem orderItem : orderItems) {
-                    orderItemRepository.delete(orderItem);
-                }
-                orderRepository.delete(order);
-            }
+        // one extra row tells whether there is a next page
+        List<Order> orders;
+        if (cursor == null || cursor.isEmpty()) {
+            orders = orderRepository.findVisibleByUserId(userId, expiryCutoff(), PageRequest.of(0, size + 1));
+        } else {
+            String[] parts = Miscellaneous.decodeCursor(cursor, 2);
+            orders = orderRepository.findVisibleByUserIdBefore(userId, expiryCutoff(),
+                    new Date(parseCursorLong(parts[0])), (int) parseCursorLong(parts[1]),
+                    PageRequest.of(0, size + 1));
         }
 
-        return orderViewModels;
+        String nextCursor = null;
+        if (orders.size() > size) {
+            orders = orders.subList(0, size);
+            Order last = orders.get(size - 1);
+            nextCursor = Miscellaneous.encodeCursor(last.getOrderDate().getTime(), last.getOrderId());
+        }
+        return new PageViewModel<OrderViewModel>(convertToOrderViewModels(orders), nextCursor);
     }
 
     @Override
@@ -333,17 +286,7 @@ public class OrderServiceImpl implements OrderService {
         Optional<Order> optinalOrder = orderRepository.findById(orderId);
 
         if (optinalOrder.isPresent()) {
-            Order order = optinalOrder.get();
-
-            List<OrderItem> orderItems = orderItemRepository.findByOrderId(order.getOrderId());
-            List<ProductOrderViewModel> products = new ArrayList<ProductOrderViewModel>();
-
-            for (OrderItem orderItem : orderItems) {
-                Product product = productService.findById(orderItem.getProductId());
-                products.add(new ProductOrderViewModel(product, orderItem.getQuantity()));
-            }
-
-            return new OrderViewModel(order, products);
+            return convertToOrderViewModels(List.of(optinalOrder.get())).get(0);
         } else {
             throw new InvalidOrderIdException("Error: Order with id #" + orderId + " not found");
         }
@@ -351,43 +294,36 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public String fetchOrderStatus(int orderId) {
-        return orderRepository.findStatusByOrderId(orderId).orElse("Error: Invalid Order Id");
+        // served from the write-through cache, the database only sees misses
+        return orderStatusCacheService.findStatus(orderId).orElse("Error: Invalid Order Id");
     }
 
     @Override
     public Order checkRazorpayStatus(Order order) {
-        try {
-            razorpayClient = new RazorpayClient(razorpayKey, razorpaySecret);
-
-            String orderId = order.getRazorpayId();
-            // for orders which are not created yet
-            if (orderId == null) {
-                return null;
-            }
-
-            List<Payment> payments = razorpayClient.orders.fetchPayments(orderId);
-
-            for (Payment payment : payments) {
-
-                Boolean captured = payment.get("captured");
-                String paymentId = payment.get("id");
+        String orderId = order.getRazorpayId();
+        // for orders which are not created yet
+        if (orderId == null) {
+            return null;
+        }
 
-                // update status and payment id if captured
-                if (captured) {
-                    order.setStatus("paid");
-                    order.setRazorpayPaymentId(paymentId);
+        String paymentId = paymentGateway.findCapturedPaymentId(orderId);
 
-                    // Send email to the customer
-                    emailSender(order.getUserId(), fetchOrder(order.getOrderId()));
+        // update status and payment id if captured
+        if (paymentId != null && confirmPayment(orderId, paymentId)) {
+            order.setStatus("paid");
+            order.setRazorpayPaymentId(paymentId);
+        }
 
-                    return orderRepository.save(order);
-                }
-            }
+        return order;
+    }
 
-            return order;
-        } catch (RazorpayException e) {
-            throw new UnknownErrorException("Error: error creating Razorpay client");
+    @Override
+    public boolean confirmPayment(String razorpayId, String paymentId) {
+        if (!markPaid(razorpayId, paymentId)) {
+            return false;
         }
+        recentPayments.add(paymentId);
+        return true;
     }
 
     @Override
@@ -413,18 +349,177 @@ public class OrderServiceImpl implements OrderService {
                     trackingLink + orderViewModel.getOrderId(),
                     companyName);
 
-            try {
+            // queued in the outbox, delivered by the background dispatcher
+            emailService.sendEmail(email, emailSubject, formatedMessage);
+        } else {
+            throw new UserNotFoundException("Error: User not found");
+        }
+    }
+
+    // stock is reserved first, so an oversold order fails before the gateway call. The
+    // gateway order is created next, then the order and its items are written in one
+    // transaction so a failure rolls back instead of leaving rows behind
+    private OrderPaymentRequest placeOrder(String reference, int userId, Address address,
+            List<OrderItem> orderItems) {
+        double totalPrice = 0.0;
+        for (OrderItem orderItem : orderItems) {
+            totalPrice += orderItem.getTotalPrice();
+        }
+
+        stockReservationService.reserve(orderItems);
 
-                emailService.sendEmail(email, emailSubject, formatedMessage);
+        Order savedOrder;
+        try {
+            // create order in the payment gateway
+            PaymentGatewayOrderModel gatewayOrder = paymentGateway.createOrder(totalPrice, "INR", reference);
+
+            Order order = new Order(userId, totalPrice, gatewayOrder.getStatus(), address.toString(),
+                    gatewayOrder.getId());
+            order.setStockReserved(true);
+            savedOrder = transactionTemplate.execute(status -> {
+                // ids come from the pooled sequence, so nothing is inserted until the batched flush at commit
+                Order persistedOrder = orderRepository.save(order);
+                for (OrderItem orderItem : orderItems) {
+                    orderItem.setOrderId(persistedOrder.getOrderId());
+                }
+                orderItemRepository.saveAll(orderItems);
+                return persistedOrder;
+            });
+        } catch (PaymentGatewayException | PaymentGatewayRejectedException e) {
+            stockReservationService.release(orderItems);
+            throw e;
+        } catch (Exception e) {
+            stockReservationService.release(orderItems);
+            throw new UnknownErrorException("Error: error creating Order {" + e.getMessage() + "}");
+        }
 
-            } catch (Exception e) {
+        productOwnershipService.registerOrderItems(orderItems);
+        orderStatusCacheService.put(savedOrder.getOrderId(), savedOrder.getStatus());
+        if (savedOrder.getStatus().equals("created")) {
+            orderExpiryService.schedule(savedOrder.getOrderId(), savedOrder.getOrderDate());
+        }
 
-                logger.error("Error sending email: " + e.getMessage(), e);
+        return new OrderPaymentRequest(savedOrder, paymentGateway.getKeyId()); // return OrderResponse object
+    }
 
+    // items and product fields of all given orders come from one join query per chunk
+    private List<OrderViewModel> convertToOrderViewModels(List<Order> orders) {
+        Map<Integer, List<ProductOrderViewModel>> productsByOrderId = new HashMap<Integer, List<ProductOrderViewModel>>();
+        for (int from = 0; from < orders.size(); from += ORDER_ID_BATCH_SIZE) {
+            List<Integer> orderIds = new ArrayList<Integer>();
+            for (Order order : orders.subList(from, Math.min(from + ORDER_ID_BATCH_SIZE, orders.size()))) {
+                orderIds.add(order.getOrderId());
+            }
+            for (OrderProductModel item : orderItemRepository.findOrderProductsByOrderIdIn(orderIds)) {
+                productsByOrderId.computeIfAbsent(item.getOrderId(), id -> new ArrayList<ProductOrderViewModel>())
+                        .add(new ProductOrderViewModel(item.getProductId(), item.getName(), item.getPrice(),
+                                item.getQuantity(), item.getImage()));
             }
-        } else {
-            throw new UserNotFoundException("Error: User not found");
         }
+
+        List<OrderViewModel> orderViewModels = new ArrayList<OrderViewModel>(orders.size());
+        for (Order order : orders) {
+            orderViewModels.add(new OrderViewModel(order,
+                    productsByOrderId.getOrDefault(order.getOrderId(), new ArrayList<ProductOrderViewModel>())));
+        }
+        return orderViewModels;
+    }
+
+    // takes canceled items off their order totals and hands their stock back,
+    // one load and one batched save for the orders, one release per product.
+    // Returns the updated orders
+    private List<Order> releaseCanceledItems(List<Integer> canceledIds, Map<Integer, SellerOrderItemModel> items) {
+        Map<Integer, Double> refundByOrderId = new HashMap<Integer, Double>();
+        for (int orderItemId : canceledIds) {
+            SellerOrderItemModel item = items.get(orderItemId);
+            refundByOrderId.merge(item.getOrderId(), item.getTotalPrice(), Double::sum);
+        }
+
+        Set<Integer> reservedOrderIds = new HashSet<Integer>();
+        List<Order> orders = orderRepository.findAllById(refundByOrderId.keySet());
+        for (Order order : orders) {
+            if (order.isStockReserved()) {
+                reservedOrderIds.add(order.getOrderId());
+            }
+            double totalAmount = order.getTotalAmount() - refundByOrderId.get(order.getOrderId());
+            order.setTotalAmount(totalAmount);
+            // update order status to cancelled if total amount is zero
+            if (totalAmount == 0) {
+                order.setStatus("canceled");
+            }
+        }
+        orderRepository.saveAll(orders);
+
+        // only orders that reserved at checkout have stock to hand back
+        Map<Integer, Integer> quantityByProductId = new HashMap<Integer, Integer>();
+        for (int orderItemId : canceledIds) {
+            SellerOrderItemModel item = items.get(orderItemId);
+            if (reservedOrderIds.contains(item.getOrderId())) {
+                quantityByProductId.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            }
+        }
+        for (Map.Entry<Integer, Integer> entry : quantityByProductId.entrySet()) {
+            stockReservationService.release(entry.getKey(), entry.getValue());
+        }
+        return orders;
+    }
+
+    private List<SellerOrderViewModel> convertToSellerOrderViewModels(List<SellerOrderProductModel> rows) {
+        List<SellerOrderViewModel> sellerOrders = new ArrayList<SellerOrderViewModel>(rows.size());
+        for (SellerOrderProductModel row : rows) {
+            sellerOrders.add(new SellerOrderViewModel(row.getOrderItem(), row.getName(), row.getOrderDate()));
+        }
+        return sellerOrders;
+    }
+
+    private Date expiryCutoff() {
+        return new Date(System.currentTimeMillis() - EXPIRATION_TIME_LIMIT);
+    }
+
+    private long parseCursorLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Error: Invalid cursor");
+        }
+    }
+
+    // the paid status and the queued confirmation email commit together. The update is
+    // conditional on the order still being unpaid, so repeated callbacks and the reconciler
+    // racing a callback mark it paid exactly once; false when there was nothing to update
+    private boolean markPaid(String razorpayId, String paymentId) {
+        Order paidOrder = transactionTemplate.execute(status -> {
+            if (orderRepository.markPaidByRazorpayId(razorpayId, paymentId) == 0) {
+                return null;
+            }
+            Order order = orderRepository.findByRazorpayId(razorpayId).get();
+
+            // Send email to the customer
+            emailSender(order.getUserId(), fetchOrder(order.getOrderId()));
+            return order;
+        });
+
+        if (paidOrder == null) {
+            return false;
+        }
+        onOrderPaid(paidOrder);
+        return true;
+    }
+
+    // bookkeeping that follows a confirmed payment
+    private void onOrderPaid(Order order) {
+        List<OrderItem> orderItems = orderItemRepository.findByOrderId(order.getOrderId());
+        for (OrderItem orderItem : orderItems) {
+            // canceled before the payment, never counted as sold
+            if (orderItem.getStatus().equals("canceled")) {
+                continue;
+            }
+            productSuggestionService.recordSale(orderItem.getProductId(), orderItem.getQuantity());
+            productFeatureService.recordSale(orderItem.getProductId(), orderItem.getQuantity());
+            purchases.add(order.getUserId(), orderItem.getProductId());
+        }
+        orderStatusCacheService.put(order.getOrderId(), "paid");
+        orderStatusStreamService.publishOrderStatus(order.getOrderId(), "paid");
     }
 
     String productDetailsConverter(List<ProductOrderViewModel> products) {
@@ -454,52 +549,49 @@ public class OrderServiceImpl implements OrderService {
     // ----------------------------------------------------------------
     @Override
     public List<SellerOrderViewModel> fetchAllOrders(int sellerId) {
-        // fetch product name and ID from the database
-        List<ProductIdAndNameModel> products = productService.findProductIdAndNameByUserId(sellerId);
-
-        List<SellerOrderViewModel> sellerOrders = new ArrayList<SellerOrderViewModel>();
-
-        for (ProductIdAndNameModel product : products) {
-            // fetch Order Items from the database
-            List<OrderItem> orderItems = orderItemRepository.findByProductId(product.getProductId());
-
-            // fetch date for all items seperatly and add to sellerOrders list
-            for (OrderItem orderItem : orderItems) {
-                Optional<Date> optionalDate = orderRepository
-                        .findPaidOrderDateByOrderId(orderItem.getOrderId());
-
-                if (optionalDate.isPresent()) {
-                    Date orderDate = optionalDate.get();
-
-                    SellerOrderViewModel order = new SellerOrderViewModel(orderItem, product.getName(), orderDate);
+        return convertToSellerOrderViewModels(orderItemRepository.findPaidSellerOrders(sellerId));
+    }
 
-                    sellerOrders.add(order); // add order to the sellerOrders List
-                }
-            }
+    // one join per page, filtered by seller, paid status and [from, until)
+    @Override
+    public PageViewModel<SellerOrderViewModel> fetchSellerOrders(int sellerId, Date from, Date until, String cursor,
+            int size) {
+        size = (size < 1) ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        Date rangeFrom = (from == null) ? new Date(0) : from;
+        // a little past now so orders paid while paging are not cut off the first page
+        Date rangeUntil = (until == null) ? new Date(System.currentTimeMillis() + 1000) : until;
+
+        // one extra row tells whether there is a next page
+        List<SellerOrderProductModel> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = orderItemRepository.findPaidSellerOrdersBetween(sellerId, rangeFrom, rangeUntil,
+                    PageRequest.of(0, size + 1));
+        } else {
+            String[] parts = Miscellaneous.decodeCursor(cursor, 2);
+            rows = orderItemRepository.findPaidSellerOrdersBetweenBefore(sellerId, rangeFrom, rangeUntil,
+                    new Date(parseCursorLong(parts[0])), (int) parseCursorLong(parts[1]),
+                    PageRequest.of(0, size + 1));
         }
 
-        return sellerOrders;
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            SellerOrderProductModel last = rows.get(size - 1);
+            nextCursor = Miscellaneous.encodeCursor(last.getOrderDate().getTime(),
+                    last.getOrderItem().getOrderItemId());
+        }
+        return new PageViewModel<SellerOrderViewModel>(convertToSellerOrderViewModels(rows), nextCursor);
     }
 
     @Override
     public Boolean verifySellerAccessByOrderItemId(int sellerId, int orderItemId) {
-        // fetch PoductID by orderItemId
-        Optional<Integer> optionalProductId = orderItemRepository.findProductIdByOrderItemId(orderItemId);
-
-        if (optionalProductId.isPresent()) {
-            int productId = optionalProductId.get();
+        // item -> seller from memory, one join query when the item is not known here
+        int fetchedSellerId = productOwnershipService.findSellerIdByOrderItemId(orderItemId);
 
-            // fetch seller ID from product ID
-            int fetchedSellerId = productService.findUserIdByProductId(productId);
+        if (fetchedSellerId != 0) {
 
-            if (fetchedSellerId != 0) {
-
-                // Compare fetched seller ID with the given seller ID
-                return sellerId == fetchedSellerId;
-
-            } else {
-                throw new UserIdNotFoundException("Error: Seller ID not found for this product");
-            }
+            // Compare fetched seller ID with the given seller ID
+            return sellerId == fetchedSellerId;
 
         } else {
             throw new InvalidOrderItemIdException("Error: order item ID is not valid");
@@ -519,6 +611,7 @@ public class OrderServiceImpl implements OrderService {
                 orderItem.setStatus("accepted");
 
                 orderItemRepository.save(orderItem);
+                orderStatusStreamService.publishOrderItemStatus(orderItem.getOrderId(), orderItemId, "accepted");
             } else {
                 throw new InvalidUpdateOrderItemRequestException("Error: faulty request, Access Denied!");
             }
@@ -536,28 +629,46 @@ public class OrderServiceImpl implements OrderService {
             OrderItem orderItem = optionalOrderItem.get();
 
             if (orderItem.getStatus().equals("waiting")) {
-                Optional<Order> optionalOrder = orderRepository.findById(orderItem.getOrderId());
+                // update status to canceled and hand the reserved quantity back, all or nothing
+                Order order = transactionTemplate.execute(status -> {
+                    // conditional, of two concurrent cancels only one moves the item and refunds it
+                    if (orderItemRepository.updateStatusByOrderItemIdIn(List.of(orderItemId), "waiting",
+                            "canceled") == 0) {
+                        throw new InvalidUpdateOrderItemRequestException("Error: faulty request, Access Denied!");
+                    }
 
-                if (optionalOrder.isPresent()) {
-                    Order order = optionalOrder.get();
+                    Optional<Order> optionalOrder = orderRepository.findById(orderItem.getOrderId());
+                    if (!optionalOrder.isPresent()) {
+                        throw new OrderNotFoundException("Error: Order not found for this Order Item");
+                    }
+                    Order canceledOrder = optionalOrder.get();
 
-                    Double totalAmount = order.getTotalAmount();
+                    Double totalAmount = canceledOrder.getTotalAmount();
                     totalAmount = totalAmount - orderItem.getTotalPrice();
 
                     // update total amount
-                    order.setTotalAmount(totalAmount);
+                    canceledOrder.setTotalAmount(totalAmount);
                     // update order status to cancelled if total amount is zero
                     if (totalAmount == 0) {
-                        order.setStatus("canceled");
+                        canceledOrder.setStatus("canceled");
                     }
-                    orderRepository.save(order);
-
-                    // update status to accepted
-                    orderItem.setStatus("canceled");
-                    orderItemRepository.save(orderItem);
-
-                } else {
-                    throw new OrderNotFoundException("Error: Order not found for this Order Item");
+                    orderRepository.save(canceledOrder);
+                    // orders placed before checkout reserved stock have none to hand back
+                    if (canceledOrder.isStockReserved()) {
+                        stockReservationService.release(orderItem.getProductId(), orderItem.getQuantity());
+                    }
+                    return canceledOrder;
+                });
+                orderStatusStreamService.publishOrderItemStatus(order.getOrderId(), orderItemId, "canceled");
+                purchases.remove(order.getUserId(), orderItem.getProductId());
+                // only a paid order counted the item as sold
+                if (order.getRazorpayPaymentId() != null) {
+                    productSuggestionService.recordCancel(orderItem.getProductId(), orderItem.getQuantity());
+                    productFeatureService.recordCancel(orderItem.getProductId(), orderItem.getQuantity());
+                }
+                if (order.getStatus().equals("canceled")) {
+                    orderStatusCacheService.put(order.getOrderId(), "canceled");
+                    orderStatusStreamService.publishOrderStatus(order.getOrderId(), "canceled");
                 }
             } else {
                 throw new InvalidUpdateOrderItemRequestException("Error: faulty request, Access Denied!");
@@ -580,6 +691,7 @@ public class OrderServiceImpl implements OrderService {
                 orderItem.setStatus("shipped");
 
                 orderItemRepository.save(orderItem);
+                orderStatusStreamService.publishOrderItemStatus(orderItem.getOrderId(), orderItemId, "shipped");
 
             } else {
                 throw new InvalidUpdateOrderItemRequestException("Error: faulty request, Access Denied!");
@@ -589,21 +701,129 @@ public class OrderServiceImpl implements OrderService {
         }
     }
 
+    // a whole batch of transitions: ownership of every item is checked with one join, each
+    // target status is applied with one conditional update and only the changed rows come back
+    @Override
+    public List<SellerOrderViewModel> updateOrderItemStatuses(int sellerId,
+            List<UpdateOrderItemStatusModal> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new InvalidUpdateOrderItemRequestException("Error: no order item status updates given");
+        }
+        if (requests.size() > MAX_STATUS_UPDATES) {
+            throw new InvalidUpdateOrderItemRequestException(
+                    "Error: at most " + MAX_STATUS_UPDATES + " order item status updates per request");
+        }
+
+        Set<Integer> orderItemIds = new HashSet<Integer>();
+        for (UpdateOrderItemStatusModal request : requests) {
+            if (request.getStatus() == null || !STATUS_TRANSITIONS.containsKey(request.getStatus())) {
+                throw new InvalidOrderItemStatusException("Error: Invalid order item status");
+            }
+            if (!orderItemIds.add(request.getOrder_id())) {
+                throw new InvalidUpdateOrderItemRequestException(
+                        "Error: order item " + request.getOrder_id() + " appears more than once");
+            }
+        }
+
+        Map<Integer, SellerOrderItemModel> items = new HashMap<Integer, SellerOrderItemModel>();
+        for (SellerOrderItemModel item : orderItemRepository.findSellerOrderItemsByOrderItemIdIn(orderItemIds)) {
+            items.put(item.getOrderItemId(), item);
+        }
+
+        // target status -> ids of the items moving there, items already there are left alone
+        Map<String, List<Integer>> idsByStatus = new LinkedHashMap<String, List<Integer>>();
+        List<Integer> changedIds = new ArrayList<Integer>();
+        for (UpdateOrderItemStatusModal request : requests) {
+            SellerOrderItemModel item = items.get(request.getOrder_id());
+            if (item == null) {
+                throw new InvalidOrderItemIdException(
+                        "Error: order item ID " + request.getOrder_id() + " is not valid");
+            }
+            if (item.getSellerId() != sellerId) {
+                throw new UnAuthorizedUserException(
+                        "Error: Access denied!, you are not allowed to update this order status");
+            }
+            if (item.getStatus().equals(request.getStatus())) {
+                continue;
+            }
+            if (!item.getStatus().equals(STATUS_TRANSITIONS.get(request.getStatus()))) {
+                throw new InvalidUpdateOrderItemRequestException("Error: order item " + request.getOrder_id()
+                        + " cannot move from " + item.getStatus() + " to " + request.getStatus());
+            }
+            idsByStatus.computeIfAbsent(request.getStatus(), status -> new ArrayList<Integer>())
+                    .add(request.getOrder_id());
+            changedIds.add(request.getOrder_id());
+        }
+        if (changedIds.isEmpty()) {
+            return new ArrayList<SellerOrderViewModel>();
+        }
+
+        List<Order> updatedOrders = transactionTemplate.execute(status -> {
+            for (Map.Entry<String, List<Integer>> entry : idsByStatus.entrySet()) {
+                int updated = orderItemRepository.updateStatusByOrderItemIdIn(entry.getValue(),
+                        STATUS_TRANSITIONS.get(entry.getKey()), entry.getKey());
+                // another request moved some of them in between, roll the whole batch back
+                if (updated != entry.getValue().size()) {
+                    throw new InvalidUpdateOrderItemRequestException(
+                            "Error: order items were updated concurrently, please retry");
+                }
+            }
+            if (idsByStatus.containsKey("canceled")) {
+                return releaseCanceledItems(idsByStatus.get("canceled"), items);
+            }
+            return new ArrayList<Order>();
+        });
+
+        // watchers hear about the transitions once they are committed
+        for (Map.Entry<String, List<Integer>> entry : idsByStatus.entrySet()) {
+            for (int orderItemId : entry.getValue()) {
+                orderStatusStreamService.publishOrderItemStatus(items.get(orderItemId).getOrderId(), orderItemId,
+                        entry.getKey());
+            }
+        }
+        Map<Integer, Integer> userIdByOrderId = new HashMap<Integer, Integer>();
+        Set<Integer> paidOrderIds = new HashSet<Integer>();
+        for (Order order : updatedOrders) {
+            userIdByOrderId.put(order.getOrderId(), order.getUserId());
+            if (order.getRazorpayPaymentId() != null) {
+                paidOrderIds.add(order.getOrderId());
+            }
+            if (order.getStatus().equals("canceled")) {
+                orderStatusCacheService.put(order.getOrderId(), "canceled");
+                orderStatusStreamService.publishOrderStatus(order.getOrderId(), "canceled");
+            }
+        }
+        // a canceled item no longer entitles a review, the cold path re-checks other orders,
+        // and no longer counts as sold for ranking and suggestions
+        for (int orderItemId : idsByStatus.getOrDefault("canceled", new ArrayList<Integer>())) {
+            SellerOrderItemModel item = items.get(orderItemId);
+            Integer userId = userIdByOrderId.get(item.getOrderId());
+            if (userId != null) {
+                purchases.remove(userId, item.getProductId());
+            }
+            if (paidOrderIds.contains(item.getOrderId())) {
+                productSuggestionService.recordCancel(item.getProductId(), item.getQuantity());
+                productFeatureService.recordCancel(item.getProductId(), item.getQuantity());
+            }
+        }
+
+        return orderItemRepository.findSellerOrderViewsByOrderItemIdIn(changedIds);
+    }
+
     // ----------------------------------------------------------------
     // Functions for Review And Rating
     // ----------------------------------------------------------------
     @Override
     public Boolean isApplicableForReview(int userId, int productId) {
-        List<Integer> orderIds = orderRepository.findOrderIdByUserId(userId);
-
-        for (int orderId : orderIds) {
-            Boolean isApplicable = orderItemRepository.existsByOrderIdAndProductId(orderId, productId);
-
-            if (isApplicable) {
-                return true;
-            }
+        if (purchases.contains(userId, productId)) {
+            return true;
         }
 
+        // paid before this instance started, or on another instance
+        if (orderItemRepository.existsPaidByUserIdAndProductId(userId, productId)) {
+            purchases.add(userId, productId);
+            return true;
+        }
         return false;
     }
 }
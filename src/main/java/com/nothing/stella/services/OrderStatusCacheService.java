@@ -0,0 +1,11 @@
+package com.nothing.stella.services;
+
+import java.util.Optional;
+
+public interface OrderStatusCacheService {
+    Optional<String> findStatus(int orderId);
+
+    void put(int orderId, String status);
+
+    void evict(int orderId);
+}
@@ -0,0 +1,74 @@
+package com.nothing.stella.services;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.nothing.stella.miscellaneous.ExpiringCache;
+import com.nothing.stella.repository.OrderRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+@Service
+public class OrderStatusCacheServiceImpl implements OrderStatusCacheService {
+
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${order.status.cache.capacity:100000}")
+    private int capacity;
+    // bounds how long a change made on another instance can go unseen here
+    @Value("${order.status.cache.ttl-ms:30000}")
+    private long ttlMillis;
+    // unknown ids are remembered briefly, so polling a bad id does not reach the database each time
+    @Value("${order.status.cache.negative-ttl-ms:5000}")
+    private long negativeTtlMillis;
+
+    // order id -> status, empty for an order that does not exist; written through on
+    // every status change made by this instance
+    private ExpiringCache<Integer, Optional<String>> statuses;
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    public void init() {
+        statuses = new ExpiringCache<Integer, Optional<String>>(capacity, ttlMillis);
+        hits = Counter.builder("order.status.cache").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("order.status.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("order.status.cache.size", statuses, ExpiringCache::size).register(meterRegistry);
+    }
+
+    @Override
+    public Optional<String> findStatus(int orderId) {
+        Optional<String> status = statuses.get(orderId);
+        if (status != null) {
+            hits.increment();
+            return status;
+        }
+
+        misses.increment();
+        Optional<String> fetched = orderRepository.findStatusByOrderId(orderId);
+        // a write-through that landed after the read is newer, never overwrite it
+        statuses.putIfAbsent(orderId, fetched, fetched.isPresent() ? ttlMillis : negativeTtlMillis);
+        return fetched;
+    }
+
+    @Override
+    public void put(int orderId, String status) {
+        statuses.put(orderId, Optional.of(status));
+    }
+
+    // the order is gone; a negative entry, not a removal, so a miss that read the row
+    // before the delete cannot put it back
+    @Override
+    public void evict(int orderId) {
+        statuses.put(orderId, Optional.empty(), negativeTtlMillis);
+    }
+}
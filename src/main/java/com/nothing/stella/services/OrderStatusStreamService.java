@@ -0,0 +1,13 @@
+package com.nothing.stella.services;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface OrderStatusStreamService {
+    SseEmitter subscribe(int orderId);
+
+    void publishOrderStatus(int orderId, String status);
+
+    void publishOrderItemStatus(int orderId, int orderItemId, String status);
+
+    void close(int orderId, String status);
+}
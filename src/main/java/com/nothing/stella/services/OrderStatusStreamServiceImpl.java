@@ -0,0 +1,336 @@
+package com.nothing.stella.services;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.nothing.stella.exception.InvalidOrderIdException;
+import com.nothing.stella.exception.OrderStreamUnavailableException;
+import com.nothing.stella.model.OrderStatusEventModel;
+
+import jakarta.annotation.PreDestroy;
+
+@Service
+public class OrderStatusStreamServiceImpl implements OrderStatusStreamService {
+
+    @Autowired
+    private OrderStatusCacheService orderStatusCacheService;
+
+    private static final long STREAM_TIMEOUT = 30 * 60 * 1000; // 30 minutes
+    private static final int MAX_SUBSCRIBERS = 20000;
+    private static final int SENDER_THREADS = 8;
+    // cap on the threads added to stand in for ones blocked in an abandoned write
+    private static final int MAX_ABANDONED_SENDERS = 56;
+    // events queued for one stream before it counts as too slow and is dropped
+    private static final int MAX_PENDING = 16;
+
+    // a single write blocked this long marks the client as stuck
+    @Value("${order.stream.send-timeout-ms:10000}")
+    private long sendTimeout;
+
+    // queue markers next to the status events
+    private static final Object HEARTBEAT = new Object();
+    private static final Object COMPLETE = new Object();
+
+    // one open stream; its events are written in order by at most one sender thread at a time
+    private static class Subscriber {
+        private final int orderId;
+        private final SseEmitter emitter;
+        private final ConcurrentLinkedDeque<Object> events = new ConcurrentLinkedDeque<Object>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean started;
+        private volatile long sendingSince;
+        // the thread inside emitter.send, guarded by the subscriber's monitor
+        private Thread sendingThread;
+        private boolean abandoned;
+
+        private Subscriber(int orderId, SseEmitter emitter) {
+            this.orderId = orderId;
+            this.emitter = emitter;
+        }
+    }
+
+    // order id -> open streams watching it
+    private final ConcurrentHashMap<Integer, List<Subscriber>> subscribers = new ConcurrentHashMap<Integer, List<Subscriber>>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    // writes go to the network, keep them off the threads that change the status. A slow
+    // client holds at most one of these threads and is dropped once its queue fills up; a
+    // write stuck past the send timeout is abandoned by the watchdog and a thread is added
+    // in its place until that write returns, so stuck clients cannot starve the others
+    private final ThreadPoolExecutor senders = new ThreadPoolExecutor(SENDER_THREADS, SENDER_THREADS, 0L,
+            TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+    private int abandonedSenders;
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusStreamServiceImpl.class);
+
+    // registered before the status is read, so a transition made in between is not lost;
+    // the current status goes out first, after that only transitions are pushed
+    @Override
+    public SseEmitter subscribe(int orderId) {
+        if (subscriberCount.incrementAndGet() > MAX_SUBSCRIBERS) {
+            subscriberCount.decrementAndGet();
+            throw new OrderStreamUnavailableException("Error: too many order status streams, try again later");
+        }
+
+        Subscriber subscriber = new Subscriber(orderId, newEmitter());
+        // add and remove both run inside the map's compute, so an emptied list is never reused
+        subscribers.compute(orderId, (id, list) -> {
+            List<Subscriber> updated = (list == null) ? new CopyOnWriteArrayList<Subscriber>() : list;
+            updated.add(subscriber);
+            return updated;
+        });
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+
+        String status;
+        try {
+            status = orderStatusCacheService.findStatus(orderId)
+                    .orElseThrow(() -> new InvalidOrderIdException("Error: Order with id #" + orderId + " not found"));
+        } catch (RuntimeException e) {
+            remove(subscriber);
+            throw e;
+        }
+
+        // ahead of anything published since the registration
+        subscriber.pending.incrementAndGet();
+        subscriber.events.offerFirst(new OrderStatusEventModel(orderId, 0, status));
+        subscriber.started = true;
+        schedule(subscriber);
+        return subscriber.emitter;
+    }
+
+    @Override
+    public void publishOrderStatus(int orderId, String status) {
+        publish(orderId, new OrderStatusEventModel(orderId, 0, status), false);
+    }
+
+    @Override
+    public void publishOrderItemStatus(int orderId, int orderItemId, String status) {
+        publish(orderId, new OrderStatusEventModel(orderId, orderItemId, status), false);
+    }
+
+    // final status, e.g. an expired order that no longer exists, the streams end after it
+    @Override
+    public void close(int orderId, String status) {
+        publish(orderId, new OrderStatusEventModel(orderId, 0, status), true);
+    }
+
+    // proxies drop connections that stay silent, a comment line keeps idle streams open.
+    // Also the watchdog: a stream stuck in one write for too long is aborted
+    @Scheduled(fixedRate = 15000)
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (List<Subscriber> list : subscribers.values()) {
+            for (Subscriber subscriber : list) {
+                long sendingSince = subscriber.sendingSince;
+                if (sendingSince != 0 && now - sendingSince > sendTimeout) {
+                    logger.debug("Aborting stuck order status stream for order " + subscriber.orderId);
+                    abort(subscriber);
+                } else {
+                    enqueue(subscriber, HEARTBEAT);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdown();
+        for (List<Subscriber> list : subscribers.values()) {
+            for (Subscriber subscriber : list) {
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------
+    // HELPER FUNCTIONS FOR STREAMS
+    // ----------------------------------------------------------------
+    SseEmitter newEmitter() {
+        return new SseEmitter(STREAM_TIMEOUT);
+    }
+
+    private void publish(int orderId, OrderStatusEventModel event, boolean last) {
+        // nobody watching costs a map lookup
+        List<Subscriber> list = subscribers.get(orderId);
+        if (list == null) {
+            return;
+        }
+        for (Subscriber subscriber : list) {
+            enqueue(subscriber, event);
+            if (last) {
+                enqueue(subscriber, COMPLETE);
+            }
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, Object event) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (subscriber.pending.incrementAndGet() > MAX_PENDING) {
+            // the client does not keep up, it reconnects and gets the current status again
+            logger.debug("Dropping slow order status stream for order " + subscriber.orderId);
+            remove(subscriber);
+            return;
+        }
+        subscriber.events.offer(event);
+        schedule(subscriber);
+    }
+
+    // at most one drain per stream is queued or running, which keeps its events in order
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.started || !subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            subscriber.draining.set(false);
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        Queue<Object> events = subscriber.events;
+        try {
+            Object event;
+            while (!subscriber.closed.get() && (event = events.poll()) != null) {
+                subscriber.pending.decrementAndGet();
+                if (event == COMPLETE) {
+                    remove(subscriber);
+                    break;
+                }
+                if (!send(subscriber, event)) {
+                    break;
+                }
+            }
+            // dropped streams are ended by the thread that owns their writes
+            if (subscriber.closed.get()) {
+                complete(subscriber);
+            }
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // an event offered after the last poll but before the flag was cleared
+        if (!subscriber.closed.get() && !events.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private boolean send(Subscriber subscriber, Object event) {
+        synchronized (subscriber) {
+            subscriber.sendingThread = Thread.currentThread();
+        }
+        subscriber.sendingSince = System.currentTimeMillis();
+        try {
+            if (event == HEARTBEAT) {
+                subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+            } else {
+                subscriber.emitter.send(SseEmitter.event().name("status").data(event));
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // client went away, the container reports it to onError / onCompletion too
+            logger.debug("Dropping order status stream for order " + subscriber.orderId + ": " + e.getMessage());
+            remove(subscriber);
+            return false;
+        } finally {
+            subscriber.sendingSince = 0;
+            synchronized (subscriber) {
+                subscriber.sendingThread = null;
+                // an interrupt meant for this write must not hit the next one
+                Thread.interrupted();
+                if (subscriber.abandoned) {
+                    subscriber.abandoned = false;
+                    releaseSender();
+                }
+            }
+        }
+    }
+
+    // the emitter's complete and completeWithError wait for the blocked send to return, so
+    // the abort goes through the thread instead: it is interrupted, which fails a write that
+    // blocks interruptibly, and a stand-in thread keeps the other streams moving either way
+    private void abort(Subscriber subscriber) {
+        remove(subscriber);
+        synchronized (subscriber) {
+            if (subscriber.sendingThread == null) {
+                return;
+            }
+            subscriber.abandoned = addSender();
+            subscriber.sendingThread.interrupt();
+        }
+    }
+
+    private synchronized boolean addSender() {
+        if (abandonedSenders >= MAX_ABANDONED_SENDERS) {
+            return false;
+        }
+        abandonedSenders++;
+        senders.setMaximumPoolSize(SENDER_THREADS + abandonedSenders);
+        senders.setCorePoolSize(SENDER_THREADS + abandonedSenders);
+        return true;
+    }
+
+    // the abandoned write returned, its thread is back in the pool
+    private synchronized void releaseSender() {
+        abandonedSenders--;
+        senders.setCorePoolSize(SENDER_THREADS + abandonedSenders);
+        senders.setMaximumPoolSize(SENDER_THREADS + abandonedSenders);
+    }
+
+    private void complete(Subscriber subscriber) {
+        try {
+            subscriber.emitter.complete();
+        } catch (IllegalStateException e) {
+            // already completed by the container
+        }
+    }
+
+    // stops queuing for the stream; it is completed by its next drain
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.orderId, (id, list) -> {
+            list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+        // a stream dropped while idle still needs a drain to end it
+        if (subscriber.started && subscriber.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> {
+                    try {
+                        complete(subscriber);
+                    } finally {
+                        subscriber.draining.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.nothing.stella.services;
+
+import com.nothing.stella.model.PaymentGatewayOrderModel;
+
+public interface PaymentGateway {
+    PaymentGatewayOrderModel createOrder(double amount, String currency, String receipt);
+
+    // id of the captured payment of the gateway order, null while nothing is captured
+    String findCapturedPaymentId(String gatewayOrderId);
+
+    boolean verifySignature(String gatewayOrderId, String paymentId, String signature);
+
+    // public key handed to the checkout page
+    String getKeyId();
+}
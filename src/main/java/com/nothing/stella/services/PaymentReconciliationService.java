@@ -0,0 +1,5 @@
+package com.nothing.stella.services;
+
+public interface PaymentReconciliationService {
+    void reconcile();
+}
@@ -0,0 +1,119 @@
+package com.nothing.stella.services;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.nothing.stella.entity.Order;
+import com.nothing.stella.exception.PaymentGatewayException;
+import com.nothing.stella.exception.PaymentGatewayRejectedException;
+import com.nothing.stella.repository.OrderRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+@Service
+public class PaymentReconciliationServiceImpl implements PaymentReconciliationService {
+
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderService orderService;
+
+    @Value("${payment.reconcile.batch-size:100}")
+    private int batchSize;
+    @Value("${payment.reconcile.concurrency:4}")
+    private int concurrency;
+
+    // unpaid orders older than this expire anyway, same as the order expiration limit
+    private static final long PENDING_WINDOW = 30 * 60 * 1000; // 30 minutes
+
+    private ExecutorService executor;
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentReconciliationServiceImpl.class);
+
+    @PostConstruct
+    public void init() {
+        // at most this many gateway calls are in flight at any time
+        executor = Executors.newFixedThreadPool(concurrency);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // polls the gateway for unpaid orders so buyer reads never wait on it;
+    // checkRazorpayStatus marks captured orders paid and sends the confirmation email
+    @Override
+    @Scheduled(fixedDelayString = "${payment.reconcile.interval-ms:60000}")
+    public void reconcile() {
+        Date since = new Date(System.currentTimeMillis() - PENDING_WINDOW);
+        int afterId = 0;
+
+        while (true) {
+            List<Order> orders = orderRepository.findPendingAfter(since, afterId, PageRequest.of(0, batchSize));
+            if (orders.isEmpty()) {
+                return;
+            }
+
+            List<Future<Order>> checks = new ArrayList<Future<Order>>(orders.size());
+            for (Order order : orders) {
+                checks.add(executor.submit(() -> orderService.checkRazorpayStatus(order)));
+            }
+
+            for (Future<Order> check : checks) {
+                try {
+                    check.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof PaymentGatewayException) {
+                        // gateway is down or the breaker is open, retry on the next run
+                        logger.warn("Payment reconciliation stopped: " + e.getCause().getMessage());
+                        waitFor(checks);
+                        return;
+                    }
+                    if (e.getCause() instanceof PaymentGatewayRejectedException) {
+                        // the gateway answered but refused this order, the rest of the batch can go on
+                        logger.warn("Payment reconciliation skipped order: " + e.getCause().getMessage());
+                        continue;
+                    }
+                    logger.error("Error reconciling order: " + e.getCause().getMessage(), e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+
+            if (orders.size() < batchSize) {
+                return;
+            }
+            afterId = orders.get(orders.size() - 1).getOrderId();
+        }
+    }
+
+    // lets the rest of the batch finish before the run ends
+    private void waitFor(List<Future<Order>> checks) {
+        for (Future<Order> check : checks) {
+            try {
+                check.get();
+            } catch (ExecutionException e) {
+                // already reported by the breaker
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
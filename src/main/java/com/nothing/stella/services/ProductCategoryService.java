@@ -0,0 +1,9 @@
+package com.nothing.stella.services;
+
+public interface ProductCategoryService {
+    String findCategoryById(int categoryId);
+
+    int findIdByCategory(String category);
+
+    void refresh();
+}
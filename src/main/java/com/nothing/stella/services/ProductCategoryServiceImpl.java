@@ -0,0 +1,77 @@
+package com.nothing.stella.services;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.nothing.stella.entity.ProductCategory;
+import com.nothing.stella.repository.ProductCategoryRepository;
+
+import jakarta.annotation.PostConstruct;
+
+@Service
+public class ProductCategoryServiceImpl implements ProductCategoryService {
+
+    @Autowired
+    private ProductCategoryRepository categoryRepository;
+
+    // immutable snapshots, swapped as a whole on refresh
+    private volatile Map<Integer, String> categoriesById = Map.of();
+    private volatile Map<String, Integer> idsByCategory = Map.of();
+    private volatile long lastRefresh = 0;
+
+    // minimum gap between refreshes triggered by unknown lookups
+    private static final long REFRESH_INTERVAL = 60 * 1000; // 1 minute
+
+    @PostConstruct
+    @Override
+    public synchronized void refresh() {
+        List<ProductCategory> categories = categoryRepository.findAll();
+
+        Map<Integer, String> byId = new HashMap<Integer, String>();
+        Map<String, Integer> byName = new HashMap<String, Integer>();
+        for (ProductCategory category : categories) {
+            byId.put(category.getId(), category.getCategory());
+            // names are matched case-insensitively, like the db collation did
+            byName.put(category.getCategory().toLowerCase(), category.getId());
+        }
+
+        categoriesById = Map.copyOf(byId);
+        idsByCategory = Map.copyOf(byName);
+        lastRefresh = System.currentTimeMillis();
+    }
+
+    @Override
+    public String findCategoryById(int categoryId) {
+        String category = categoriesById.get(categoryId);
+        // a category added directly to the database is picked up on the next miss
+        if (category == null && refreshIfStale()) {
+            category = categoriesById.get(categoryId);
+        }
+        return category;
+    }
+
+    @Override
+    public int findIdByCategory(String category) {
+        if (category == null) {
+            return 0;
+        }
+        String key = category.toLowerCase();
+        Integer categoryId = idsByCategory.get(key);
+        if (categoryId == null && refreshIfStale()) {
+            categoryId = idsByCategory.get(key);
+        }
+        return (categoryId != null) ? categoryId : 0;
+    }
+
+    private boolean refreshIfStale() {
+        if (System.currentTimeMillis() - lastRefresh < REFRESH_INTERVAL) {
+            return false;
+        }
+        refresh();
+        return true;
+    }
+}
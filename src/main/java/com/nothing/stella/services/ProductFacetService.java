@@ -0,0 +1,16 @@
+package com.nothing.stella.services;
+
+import com.nothing.stella.entity.Product;
+import com.nothing.stella.model.ProductFacetResultModel;
+
+public interface ProductFacetService {
+    // filters use 0 / -1 for "not selected"; only active products are browsable,
+    // the page and every count come from one snapshot
+    ProductFacetResultModel browse(int categoryId, int priceBucket, int storeId, int afterId, int limit);
+
+    int findPriceBucket(String label);
+
+    void index(Product product);
+
+    void remove(int productId);
+}
@@ -0,0 +1,246 @@
+package com.nothing.stella.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToIntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.nothing.stella.entity.Product;
+import com.nothing.stella.model.ProductFacetModel;
+import com.nothing.stella.model.ProductFacetResultModel;
+import com.nothing.stella.repository.ProductRepository;
+
+import jakarta.annotation.PostConstruct;
+
+@Service
+public class ProductFacetServiceImpl implements ProductFacetService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // lower bounds of the price buckets, the last bucket is open ended
+    private static final double[] PRICE_BOUNDS = { 0, 500, 1000, 5000, 10000, 50000 };
+    private static final String[] PRICE_LABELS = { "0-500", "500-1000", "1000-5000", "5000-10000", "10000-50000",
+            "50000+" };
+
+    // one bitset per facet value, bit index = product id
+    private final BitSet activeProducts = new BitSet();
+    private final BitSet[] byPriceBucket = new BitSet[PRICE_BOUNDS.length];
+    private final Map<Integer, BitSet> byCategory = new HashMap<Integer, BitSet>();
+    private final Map<Integer, BitSet> byStore = new HashMap<Integer, BitSet>();
+    // product id -> facet values it is currently indexed under
+    private final Map<Integer, ProductFacetModel> indexed = new HashMap<Integer, ProductFacetModel>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private static final BitSet EMPTY = new BitSet();
+    // below total / ratio matching products, per product lookups beat walking every facet value
+    private static final int SMALL_BASE_RATIO = 16;
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductFacetServiceImpl.class);
+
+    @PostConstruct
+    public void build() {
+        List<ProductFacetModel> products = productRepository.findAllFacets();
+
+        lock.writeLock().lock();
+        try {
+            activeProducts.clear();
+            byCategory.clear();
+            byStore.clear();
+            indexed.clear();
+            for (int i = 0; i < byPriceBucket.length; i++) {
+                byPriceBucket[i] = new BitSet();
+            }
+            for (ProductFacetModel product : products) {
+                add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.info("Product facets built: " + products.size() + " products, " + byCategory.size()
+                + " categories, " + byStore.size() + " stores");
+    }
+
+    // each facet is counted against the other selected filters, so the
+    // client can still see how many results every alternative value has
+    @Override
+    public ProductFacetResultModel browse(int categoryId, int priceBucket, int storeId, int afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = match(categoryId, priceBucket, storeId);
+            int[] ids = new int[limit];
+            int count = 0;
+            for (int id = matches.nextSetBit(afterId + 1); id >= 0 && count < limit; id = matches.nextSetBit(id + 1)) {
+                ids[count++] = id;
+            }
+
+            Map<Integer, Integer> categoryCounts = countValues(match(0, priceBucket, storeId), byCategory,
+                    ProductFacetModel::getCategoryId);
+            Map<Integer, Integer> storeCounts = countValues(match(categoryId, priceBucket, 0), byStore,
+                    ProductFacetModel::getUserId);
+
+            BitSet priceBase = match(categoryId, -1, storeId);
+            int[] bucketCounts = new int[byPriceBucket.length];
+            if (isSmall(priceBase)) {
+                for (int id = priceBase.nextSetBit(0); id >= 0; id = priceBase.nextSetBit(id + 1)) {
+                    bucketCounts[priceBucketOf(indexed.get(id).getPrice())]++;
+                }
+            } else {
+                for (int i = 0; i < byPriceBucket.length; i++) {
+                    bucketCounts[i] = intersectionSize(byPriceBucket[i], priceBase);
+                }
+            }
+            Map<String, Integer> priceCounts = new LinkedHashMap<String, Integer>();
+            for (int i = 0; i < byPriceBucket.length; i++) {
+                priceCounts.put(PRICE_LABELS[i], bucketCounts[i]);
+            }
+
+            return new ProductFacetResultModel(Arrays.copyOf(ids, count), categoryCounts, priceCounts, storeCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int findPriceBucket(String label) {
+        for (int i = 0; i < PRICE_LABELS.length; i++) {
+            if (PRICE_LABELS[i].equals(label)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            clear(product.getId());
+            add(new ProductFacetModel(product.getId(), product.getUserId(), product.getCategoryId(),
+                    product.getPrice(), product.isActive()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            clear(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ----------------------------------------------------------------
+    // HELPER FUNCTIONS FOR FACETS
+    // ----------------------------------------------------------------
+    // the one allocation per facet family: starts from the most selective
+    // selected set instead of copying every product and narrowing down.
+    // Deactivated products stay indexed but never match
+    private BitSet match(int categoryId, int priceBucket, int storeId) {
+        List<BitSet> selected = new ArrayList<BitSet>(4);
+        selected.add(activeProducts);
+        if (categoryId != 0) {
+            selected.add(byCategory.getOrDefault(categoryId, EMPTY));
+        }
+        if (priceBucket >= 0) {
+            selected.add(byPriceBucket[priceBucket]);
+        }
+        if (storeId != 0) {
+            selected.add(byStore.getOrDefault(storeId, EMPTY));
+        }
+        selected.sort(Comparator.comparingInt(BitSet::cardinality));
+
+        BitSet result = (BitSet) selected.get(0).clone();
+        for (int i = 1; i < selected.size(); i++) {
+            result.and(selected.get(i));
+        }
+        return result;
+    }
+
+    // counts per facet value without building any intersection. A small base is walked once
+    // and looked up per product, otherwise every value set is walked and tested against the base
+    private Map<Integer, Integer> countValues(BitSet base, Map<Integer, BitSet> values,
+            ToIntFunction<ProductFacetModel> valueOf) {
+        Map<Integer, Integer> counts = new HashMap<Integer, Integer>();
+        if (isSmall(base)) {
+            for (int id = base.nextSetBit(0); id >= 0; id = base.nextSetBit(id + 1)) {
+                counts.merge(valueOf.applyAsInt(indexed.get(id)), 1, Integer::sum);
+            }
+            return counts;
+        }
+        for (Map.Entry<Integer, BitSet> entry : values.entrySet()) {
+            int count = intersectionSize(entry.getValue(), base);
+            if (count > 0) {
+                counts.put(entry.getKey(), count);
+            }
+        }
+        return counts;
+    }
+
+    private boolean isSmall(BitSet base) {
+        return base.cardinality() < indexed.size() / SMALL_BASE_RATIO;
+    }
+
+    // walks the first set only, pass the smaller one first
+    private int intersectionSize(BitSet a, BitSet b) {
+        int count = 0;
+        for (int id = a.nextSetBit(0); id >= 0; id = a.nextSetBit(id + 1)) {
+            if (b.get(id)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int priceBucketOf(double price) {
+        for (int i = PRICE_BOUNDS.length - 1; i > 0; i--) {
+            if (price >= PRICE_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private void add(ProductFacetModel product) {
+        int id = product.getProductId();
+        if (product.isActive()) {
+            activeProducts.set(id);
+        }
+        byPriceBucket[priceBucketOf(product.getPrice())].set(id);
+        byCategory.computeIfAbsent(product.getCategoryId(), key -> new BitSet()).set(id);
+        byStore.computeIfAbsent(product.getUserId(), key -> new BitSet()).set(id);
+        indexed.put(id, product);
+    }
+
+    private void clear(int productId) {
+        ProductFacetModel product = indexed.remove(productId);
+        if (product == null) {
+            return;
+        }
+        activeProducts.clear(productId);
+        byPriceBucket[priceBucketOf(product.getPrice())].clear(productId);
+        BitSet category = byCategory.get(product.getCategoryId());
+        if (category != null) {
+            category.clear(productId);
+        }
+        BitSet store = byStore.get(product.getUserId());
+        if (store != null) {
+            store.clear(productId);
+        }
+    }
+}
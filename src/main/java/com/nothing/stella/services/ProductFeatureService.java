@@ -0,0 +1,19 @@
+package com.nothing.stella.services;
+
+import com.nothing.stella.miscellaneous.RankedIds;
+
+public interface ProductFeatureService {
+    RankedIds rankPage(RankedIds textMatches, double afterScore, int afterId, int limit);
+
+    double getAverageRating(int productId);
+
+    long getUnitsSold(int productId);
+
+    void recordRating(int productId, int rating);
+
+    void updateRating(int productId, int oldRating, int newRating);
+
+    void recordSale(int productId, int quantity);
+
+    void recordCancel(int productId, int quantity);
+}
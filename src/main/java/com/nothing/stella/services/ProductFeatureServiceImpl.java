@@ -0,0 +1,231 @@
+package com.nothing.stella.services;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.nothing.stella.miscellaneous.RankedIds;
+import com.nothing.stella.model.ProductRatingModel;
+import com.nothing.stella.model.ProductSalesModel;
+import com.nothing.stella.repository.OrderItemRepository;
+import com.nothing.stella.repository.ReviewAndRatingRepository;
+
+import jakarta.annotation.PostConstruct;
+
+@Service
+public class ProductFeatureServiceImpl implements ProductFeatureService {
+
+    @Autowired
+    private ReviewAndRatingRepository reviewAndRatingRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    // how much a perfect rating / each order of magnitude of sales boosts the text score
+    private static final double RATING_WEIGHT = 0.5;
+    private static final double SALES_WEIGHT = 0.1;
+
+    // per-product features, indexed by product id
+    private int[] ratingSum = new int[1024];
+    private int[] ratingCount = new int[1024];
+    private long[] unitsSold = new long[1024];
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductFeatureServiceImpl.class);
+
+    @PostConstruct
+    public void build() {
+        List<ProductRatingModel> ratings = reviewAndRatingRepository.findRatingSummaryGroupByProductId();
+        List<ProductSalesModel> sales = orderItemRepository.findPaidSalesGroupByProductId();
+
+        lock.writeLock().lock();
+        try {
+            for (ProductRatingModel rating : ratings) {
+                ensureCapacity(rating.getProductId());
+                ratingSum[rating.getProductId()] = rating.getRatingSum().intValue();
+                ratingCount[rating.getProductId()] = rating.getRatingCount().intValue();
+            }
+            for (ProductSalesModel sale : sales) {
+                ensureCapacity(sale.getProductId());
+                unitsSold[sale.getProductId()] = sale.getQuantity();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.info("Product features loaded: " + ratings.size() + " rated, " + sales.size() + " sold products");
+    }
+
+    // the limit best matches ranked after (afterScore, afterId), selected with a bounded heap
+    // so a page costs one pass over the matches and no sort or copy of the whole match set
+    @Override
+    public RankedIds rankPage(RankedIds textMatches, double afterScore, int afterId, int limit) {
+        // min-heap on rank: the root is the worst of the best entries kept so far
+        int[] ids = new int[limit];
+        double[] scores = new double[limit];
+        int size = 0;
+
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < textMatches.size(); i++) {
+                int productId = textMatches.getId(i);
+                double score = RankedIds.quantize(textMatches.getScore(i)
+                        * (1 + RATING_WEIGHT * averageRating(productId) / 5
+                                + SALES_WEIGHT * Math.log10(1 + units(productId))));
+                // already served on an earlier page
+                if (!rankedAfter(score, productId, afterScore, afterId)) {
+                    continue;
+                }
+                if (size < limit) {
+                    ids[size] = productId;
+                    scores[size] = score;
+                    siftUp(ids, scores, size++);
+                } else if (limit > 0 && rankedAfter(scores[0], ids[0], score, productId)) {
+                    ids[0] = productId;
+                    scores[0] = score;
+                    siftDown(ids, scores, size);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new RankedIds(Arrays.copyOf(ids, size), Arrays.copyOf(scores, size));
+    }
+
+    @Override
+    public double getAverageRating(int productId) {
+        lock.readLock().lock();
+        try {
+            return averageRating(productId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long getUnitsSold(int productId) {
+        lock.readLock().lock();
+        try {
+            return units(productId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void recordRating(int productId, int rating) {
+        lock.writeLock().lock();
+        try {
+            ensureCapacity(productId);
+            ratingSum[productId] += rating;
+            ratingCount[productId]++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void updateRating(int productId, int oldRating, int newRating) {
+        lock.writeLock().lock();
+        try {
+            ensureCapacity(productId);
+            ratingSum[productId] += newRating - oldRating;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void recordSale(int productId, int quantity) {
+        lock.writeLock().lock();
+        try {
+            ensureCapacity(productId);
+            unitsSold[productId] += quantity;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // a canceled item of a paid order; never below zero, a sale made before
+    // the last rebuild may already have been left out of the loaded totals
+    @Override
+    public void recordCancel(int productId, int quantity) {
+        lock.writeLock().lock();
+        try {
+            if (productId < unitsSold.length) {
+                unitsSold[productId] = Math.max(0, unitsSold[productId] - quantity);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ----------------------------------------------------------------
+    // HELPER FUNCTIONS FOR FEATURES
+    // ----------------------------------------------------------------
+    private double averageRating(int productId) {
+        if (productId >= ratingCount.length || ratingCount[productId] == 0) {
+            return 0;
+        }
+        return (double) ratingSum[productId] / ratingCount[productId];
+    }
+
+    // (score desc, id asc) order, same as RankedIds
+    private static boolean rankedAfter(double score, int id, double otherScore, int otherId) {
+        return score < otherScore || (score == otherScore && id > otherId);
+    }
+
+    private static void siftUp(int[] ids, double[] scores, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!rankedAfter(scores[index], ids[index], scores[parent], ids[parent])) {
+                return;
+            }
+            swap(ids, scores, index, parent);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] ids, double[] scores, int size) {
+        int index = 0;
+        while (true) {
+            int worst = index;
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                if (rankedAfter(scores[child], ids[child], scores[worst], ids[worst])) {
+                    worst = child;
+                }
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(ids, scores, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] ids, double[] scores, int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+
+    private long units(int productId) {
+        return (productId < unitsSold.length) ? unitsSold[productId] : 0;
+    }
+
+    private void ensureCapacity(int productId) {
+        if (productId >= ratingSum.length) {
+            int capacity = Math.max(productId + 1, ratingSum.length * 2);
+            ratingSum = Arrays.copyOf(ratingSum, capacity);
+            ratingCount = Arrays.copyOf(ratingCount, capacity);
+            unitsSold = Arrays.copyOf(unitsSold, capacity);
+        }
+    }
+}
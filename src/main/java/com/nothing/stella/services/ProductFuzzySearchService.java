@@ -0,0 +1,12 @@
+package com.nothing.stella.services;
+
+import com.nothing.stella.entity.Product;
+import com.nothing.stella.miscellaneous.RankedIds;
+
+public interface ProductFuzzySearchService {
+    RankedIds search(String query, int limit);
+
+    void index(Product product);
+
+    void remove(int productId);
+}
@@ -0,0 +1,249 @@
+package com.nothing.stella.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.nothing.stella.entity.Product;
+import com.nothing.stella.miscellaneous.Miscellaneous;
+import com.nothing.stella.miscellaneous.RankedIds;
+import com.nothing.stella.miscellaneous.SortedIntList;
+import com.nothing.stella.model.ProductTextModel;
+import com.nothing.stella.repository.ProductRepository;
+
+import jakarta.annotation.PostConstruct;
+
+@Service
+public class ProductFuzzySearchServiceImpl implements ProductFuzzySearchService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // a query reads at most this many posting lists per field (the rarest ones)
+    private static final int MAX_QUERY_GRAMS = 8;
+    // candidates that go on to edit distance scoring
+    private static final int MAX_CANDIDATES = 200;
+    private static final double MIN_NAME_SIMILARITY = 0.5;
+    private static final double MIN_DESCRIPTION_SIMILARITY = 0.75;
+    private static final double DESCRIPTION_WEIGHT = 0.25;
+
+    private static class IndexedProduct {
+        private final List<String> nameTokens;
+        private final Set<String> nameGrams;
+        private final Set<String> descriptionGrams;
+
+        private IndexedProduct(List<String> nameTokens, Set<String> nameGrams, Set<String> descriptionGrams) {
+            this.nameTokens = nameTokens;
+            this.nameGrams = nameGrams;
+            this.descriptionGrams = descriptionGrams;
+        }
+    }
+
+    // trigram -> ids of active products containing it
+    private final Map<String, SortedIntList> namePostings = new HashMap<String, SortedIntList>();
+    private final Map<String, SortedIntList> descriptionPostings = new HashMap<String, SortedIntList>();
+    private final Map<Integer, IndexedProduct> products = new HashMap<Integer, IndexedProduct>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductFuzzySearchServiceImpl.class);
+
+    @PostConstruct
+    public void build() {
+        List<ProductTextModel> texts = productRepository.findActiveProductText();
+
+        lock.writeLock().lock();
+        try {
+            namePostings.clear();
+            descriptionPostings.clear();
+            products.clear();
+            for (ProductTextModel text : texts) {
+                add(text.getProductId(), text.getName(), text.getDescription());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.info("Product trigram index built: " + texts.size() + " products, " + namePostings.size()
+                + " name trigrams, " + descriptionPostings.size() + " description trigrams");
+    }
+
+    @Override
+    public RankedIds search(String query, int limit) {
+        List<String> queryTokens = Miscellaneous.tokenize(query);
+        Set<String> queryGrams = Miscellaneous.trigrams(queryTokens);
+        if (queryGrams.isEmpty()) {
+            return RankedIds.of(new int[0], 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            // count shared trigrams, touching only the most selective posting lists
+            List<SortedIntList> nameLists = rarest(namePostings, queryGrams);
+            List<SortedIntList> descriptionLists = rarest(descriptionPostings, queryGrams);
+
+            Map<Integer, Integer> nameHits = countHits(nameLists);
+            Map<Integer, Integer> descriptionHits = countHits(descriptionLists);
+
+            Map<Integer, Double> overlap = new HashMap<Integer, Double>();
+            for (Map.Entry<Integer, Integer> entry : nameHits.entrySet()) {
+                overlap.put(entry.getKey(), (double) entry.getValue());
+            }
+            for (Map.Entry<Integer, Integer> entry : descriptionHits.entrySet()) {
+                overlap.merge(entry.getKey(), DESCRIPTION_WEIGHT * entry.getValue(), Double::sum);
+            }
+
+            List<Map.Entry<Integer, Double>> candidates = new ArrayList<Map.Entry<Integer, Double>>(overlap.entrySet());
+            candidates.sort(Map.Entry.<Integer, Double>comparingByValue().reversed());
+            if (candidates.size() > MAX_CANDIDATES) {
+                candidates = candidates.subList(0, MAX_CANDIDATES);
+            }
+
+            // rank the candidates by how close their name words are to the query words
+            int[] ids = new int[candidates.size()];
+            double[] scores = new double[candidates.size()];
+            int count = 0;
+            for (Map.Entry<Integer, Double> candidate : candidates) {
+                int productId = candidate.getKey();
+                IndexedProduct product = products.get(productId);
+
+                double nameSimilarity = nameSimilarity(queryTokens, product.nameTokens);
+                double descriptionSimilarity = descriptionLists.isEmpty() ? 0
+                        : (double) descriptionHits.getOrDefault(productId, 0) / descriptionLists.size();
+
+                if (nameSimilarity >= MIN_NAME_SIMILARITY || descriptionSimilarity >= MIN_DESCRIPTION_SIMILARITY) {
+                    ids[count] = productId;
+                    scores[count] = nameSimilarity + DESCRIPTION_WEIGHT * descriptionSimilarity;
+                    count++;
+                }
+            }
+
+            RankedIds ranked = new RankedIds(Arrays.copyOf(ids, count), Arrays.copyOf(scores, count));
+            return top(ranked, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            clear(product.getId());
+            // only active products are searchable
+            if (product.isActive()) {
+                add(product.getId(), product.getName(), product.getDescription());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            clear(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ----------------------------------------------------------------
+    // HELPER FUNCTIONS FOR TRIGRAM INDEX
+    // ----------------------------------------------------------------
+    private void add(int productId, String name, String description) {
+        List<String> nameTokens = Miscellaneous.tokenize(name);
+        Set<String> nameGrams = Miscellaneous.trigrams(nameTokens);
+        Set<String> descriptionGrams = Miscellaneous.trigrams(Miscellaneous.tokenize(description));
+
+        for (String gram : nameGrams) {
+            namePostings.computeIfAbsent(gram, key -> new SortedIntList()).add(productId);
+        }
+        for (String gram : descriptionGrams) {
+            descriptionPostings.computeIfAbsent(gram, key -> new SortedIntList()).add(productId);
+        }
+        products.put(productId, new IndexedProduct(nameTokens, nameGrams, descriptionGrams));
+    }
+
+    private void clear(int productId) {
+        IndexedProduct product = products.remove(productId);
+        if (product == null) {
+            return;
+        }
+        removePostings(namePostings, product.nameGrams, productId);
+        removePostings(descriptionPostings, product.descriptionGrams, productId);
+    }
+
+    private void removePostings(Map<String, SortedIntList> postings, Set<String> grams, int productId) {
+        for (String gram : grams) {
+            SortedIntList ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(productId);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private List<SortedIntList> rarest(Map<String, SortedIntList> postings, Set<String> grams) {
+        List<SortedIntList> lists = new ArrayList<SortedIntList>();
+        for (String gram : grams) {
+            SortedIntList ids = postings.get(gram);
+            // a misspelled trigram simply has no postings
+            if (ids != null) {
+                lists.add(ids);
+            }
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        return (lists.size() > MAX_QUERY_GRAMS) ? lists.subList(0, MAX_QUERY_GRAMS) : lists;
+    }
+
+    private Map<Integer, Integer> countHits(List<SortedIntList> lists) {
+        Map<Integer, Integer> hits = new HashMap<Integer, Integer>();
+        for (SortedIntList ids : lists) {
+            for (int i = 0; i < ids.size(); i++) {
+                hits.merge(ids.get(i), 1, Integer::sum);
+            }
+        }
+        return hits;
+    }
+
+    // average over query words of the best 1 - editDistance / length against any name word
+    private double nameSimilarity(List<String> queryTokens, List<String> nameTokens) {
+        if (queryTokens.isEmpty() || nameTokens.isEmpty()) {
+            return 0;
+        }
+        double total = 0;
+        for (String queryToken : queryTokens) {
+            double best = 0;
+            for (String nameToken : nameTokens) {
+                int length = Math.max(queryToken.length(), nameToken.length());
+                double similarity = 1 - (double) Miscellaneous.editDistance(queryToken, nameToken) / length;
+                best = Math.max(best, similarity);
+            }
+            total += best;
+        }
+        return total / queryTokens.size();
+    }
+
+    private RankedIds top(RankedIds ranked, int limit) {
+        int size = Math.min(limit, ranked.size());
+        int[] ids = new int[size];
+        double[] scores = new double[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = ranked.getId(i);
+            scores[i] = ranked.getScore(i);
+        }
+        return new RankedIds(ids, scores);
+    }
+}
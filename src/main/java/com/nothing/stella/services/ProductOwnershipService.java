@@ -0,0 +1,17 @@
+package com.nothing.stella.services;
+
+import java.util.List;
+
+import com.nothing.stella.entity.OrderItem;
+
+public interface ProductOwnershipService {
+    int findSellerId(int productId);
+
+    boolean isOwner(int sellerId, int productId);
+
+    void register(int productId, int sellerId);
+
+    int findSellerIdByOrderItemId(int orderItemId);
+
+    void registerOrderItems(List<OrderItem> orderItems);
+}
@@ -0,0 +1,114 @@
+package com.nothing.stella.services;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.nothing.stella.entity.OrderItem;
+import com.nothing.stella.miscellaneous.IntIntHashMap;
+import com.nothing.stella.model.ProductOwnerModel;
+import com.nothing.stella.repository.OrderItemRepository;
+import com.nothing.stella.repository.ProductRepository;
+
+import jakarta.annotation.PostConstruct;
+
+@Service
+public class ProductOwnershipServiceImpl implements ProductOwnershipService {
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    private static final int WARMUP_BATCH_SIZE = 10000;
+    // order items keep coming, past this many the item map starts over from the database
+    private static final int MAX_ORDER_ITEMS = 1 << 20;
+
+    // product id -> seller (user) id, a product never changes owner so entries never go stale
+    private final IntIntHashMap owners = new IntIntHashMap(1 << 16);
+    // order item id -> seller id, an item never changes product so this never goes stale either
+    private final IntIntHashMap itemOwners = new IntIntHashMap(1 << 16);
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductOwnershipServiceImpl.class);
+
+    @PostConstruct
+    public void warmUp() {
+        int afterId = 0;
+        while (true) {
+            List<ProductOwnerModel> batch = productRepository.findOwnersAfter(afterId,
+                    PageRequest.of(0, WARMUP_BATCH_SIZE));
+            for (ProductOwnerModel owner : batch) {
+                owners.put(owner.getProductId(), owner.getUserId());
+            }
+            if (batch.size() < WARMUP_BATCH_SIZE) {
+                break;
+            }
+            afterId = batch.get(batch.size() - 1).getProductId();
+        }
+        logger.info("Product ownership loaded for " + owners.size() + " products");
+    }
+
+    // 0 when the product does not exist
+    @Override
+    public int findSellerId(int productId) {
+        int sellerId = owners.get(productId, 0);
+        if (sellerId != 0) {
+            return sellerId;
+        }
+
+        // created on another instance, or before the warm up finished
+        sellerId = productRepository.findUserIdByProductId(productId).orElse(0);
+        if (sellerId != 0) {
+            owners.put(productId, sellerId);
+        }
+        return sellerId;
+    }
+
+    @Override
+    public boolean isOwner(int sellerId, int productId) {
+        return findSellerId(productId) == sellerId;
+    }
+
+    @Override
+    public void register(int productId, int sellerId) {
+        owners.put(productId, sellerId);
+    }
+
+    // 0 when the order item does not exist
+    @Override
+    public int findSellerIdByOrderItemId(int orderItemId) {
+        int sellerId = itemOwners.get(orderItemId, 0);
+        if (sellerId != 0) {
+            return sellerId;
+        }
+
+        // placed on another instance or before a restart, one join query
+        sellerId = orderItemRepository.findSellerIdByOrderItemId(orderItemId).orElse(0);
+        if (sellerId != 0) {
+            putItemOwner(orderItemId, sellerId);
+        }
+        return sellerId;
+    }
+
+    // new items resolve through the product map, no query
+    @Override
+    public void registerOrderItems(List<OrderItem> orderItems) {
+        for (OrderItem orderItem : orderItems) {
+            int sellerId = findSellerId(orderItem.getProductId());
+            if (sellerId != 0) {
+                putItemOwner(orderItem.getOrderItemId(), sellerId);
+            }
+        }
+    }
+
+    private void putItemOwner(int orderItemId, int sellerId) {
+        if (itemOwners.size() >= MAX_ORDER_ITEMS) {
+            itemOwners.clear();
+        }
+        itemOwners.put(orderItemId, sellerId);
+    }
+}
@@ -0,0 +1,12 @@
+package com.nothing.stella.services;
+
+import com.nothing.stella.entity.Product;
+import com.nothing.stella.miscellaneous.RankedIds;
+
+public interface ProductSearchService {
+    RankedIds search(String query);
+
+    void index(Product product);
+
+    void remove(int productId);
+}
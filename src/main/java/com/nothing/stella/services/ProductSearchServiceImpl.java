@@ -0,0 +1,178 @@
+package com.nothing.stella.services;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.nothing.stella.entity.Product;
+import com.nothing.stella.miscellaneous.Miscellaneous;
+import com.nothing.stella.miscellaneous.RankedIds;
+import com.nothing.stella.miscellaneous.SortedIntList;
+import com.nothing.stella.model.ProductIdAndNameModel;
+import com.nothing.stella.repository.ProductRepository;
+
+import jakarta.annotation.PostConstruct;
+
+@Service
+public class ProductSearchServiceImpl implements ProductSearchService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // term -> ids of active products whose name contains the term
+    private final TreeMap<String, SortedIntList> postings = new TreeMap<String, SortedIntList>();
+    // product id -> indexed terms, needed to clean up postings on re-index
+    private final Map<Integer, List<String>> productTerms = new HashMap<Integer, List<String>>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchServiceImpl.class);
+
+    @PostConstruct
+    public void build() {
+        List<ProductIdAndNameModel> products = productRepository.findActiveProductIdAndName();
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            productTerms.clear();
+            for (ProductIdAndNameModel product : products) {
+                addTerms(product.getProductId(), product.getName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.info("Product search index built: " + products.size() + " products, " + postings.size() + " terms");
+    }
+
+    @Override
+    public RankedIds search(String query) {
+        List<String> tokens = Miscellaneous.tokenize(query);
+        if (tokens.isEmpty()) {
+            return RankedIds.of(new int[0], 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            int[] result = null;
+            for (int i = 0; i < tokens.size(); i++) {
+                // last token is matched as a prefix, so partially typed words still hit
+                int[] ids = (i == tokens.size() - 1) ? prefixPostings(tokens.get(i)) : exactPostings(tokens.get(i));
+
+                result = (result == null) ? ids : SortedIntList.intersect(result, ids);
+                if (result.length == 0) {
+                    break;
+                }
+            }
+
+            // text match score: names that consist mostly of the query words, and
+            // complete words rather than prefixes, score higher
+            String lastToken = tokens.get(tokens.size() - 1);
+            double[] scores = new double[result.length];
+            for (int i = 0; i < result.length; i++) {
+                List<String> terms = productTerms.get(result[i]);
+                double coverage = Math.min(1.0, (double) tokens.size() / terms.size());
+                double exact = terms.contains(lastToken) ? 1.0 : 0.0;
+                scores[i] = 0.5 + 0.4 * coverage + 0.1 * exact;
+            }
+            return new RankedIds(result, scores);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeTerms(product.getId());
+            // only active products are searchable
+            if (product.isActive()) {
+                addTerms(product.getId(), product.getName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            removeTerms(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ----------------------------------------------------------------
+    // HELPER FUNCTIONS FOR INDEX
+    // ----------------------------------------------------------------
+    private void addTerms(int productId, String name) {
+        List<String> terms = Miscellaneous.tokenize(name);
+        for (String term : terms) {
+            postings.computeIfAbsent(term, key -> new SortedIntList()).add(productId);
+        }
+        productTerms.put(productId, terms);
+    }
+
+    private void removeTerms(int productId) {
+        List<String> terms = productTerms.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            SortedIntList ids = postings.get(term);
+            if (ids != null) {
+                ids.remove(productId);
+                if (ids.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private int[] exactPostings(String term) {
+        SortedIntList ids = postings.get(term);
+        return (ids != null) ? ids.toArray() : new int[0];
+    }
+
+    private int[] prefixPostings(String prefix) {
+        NavigableMap<String, SortedIntList> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+
+        if (range.size() == 1) {
+            return range.firstEntry().getValue().toArray();
+        }
+
+        // concatenate every matching posting list, then sort and drop duplicates once
+        int total = 0;
+        for (SortedIntList ids : range.values()) {
+            total += ids.size();
+        }
+        int[] merged = new int[total];
+        int offset = 0;
+        for (SortedIntList ids : range.values()) {
+            for (int i = 0; i < ids.size(); i++) {
+                merged[offset++] = ids.get(i);
+            }
+        }
+        Arrays.sort(merged);
+
+        int unique = 0;
+        for (int i = 0; i < merged.length; i++) {
+            if (unique == 0 || merged[unique - 1] != merged[i]) {
+                merged[unique++] = merged[i];
+            }
+        }
+        return Arrays.copyOf(merged, unique);
+    }
+}
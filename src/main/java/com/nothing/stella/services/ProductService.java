@@ -1,21 +1,37 @@
 package com.nothing.stella.services;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.web.multipart.MultipartFile;
 
 import com.nothing.stella.entity.Product;
+import com.nothing.stella.model.PageViewModel;
+import com.nothing.stella.model.ProductBrowseViewModel;
 import com.nothing.stella.model.ProductIdAndNameModel;
+import com.nothing.stella.model.ProductImportResultModel;
 import com.nothing.stella.model.ProductInputModel;
+import com.nothing.stella.model.ProductPriceModel;
+import com.nothing.stella.model.ProductShortViewModel;
 import com.nothing.stella.model.ProductUpdateModel;
 import com.nothing.stella.model.ProductViewModel;
 
 public interface ProductService {
-    List<ProductViewModel> getProductsBySearch(String search);
+    PageViewModel<ProductShortViewModel> getProductsBySearch(String search, String cursor, int size);
 
     List<ProductViewModel> getProductsByReference(String reference);
 
-    List<ProductViewModel> getProductsByStoreName(String storeName);
+    ProductViewModel getProduct(int productId);
+
+    List<ProductImportResultModel> importProducts(String reference, MultipartFile manifest, MultipartFile archive);
+
+    void exportProducts(int userId, String format, OutputStream outputStream) throws IOException;
+
+    ProductBrowseViewModel browse(String category, String priceBucket, int storeId, String cursor, int size);
+
+    PageViewModel<ProductShortViewModel> getProductsByStoreName(String storeName, String cursor, int size);
 
     ProductViewModel save(String reference, ProductInputModel product, List<MultipartFile> images);
 
@@ -29,6 +45,8 @@ public interface ProductService {
 
     Double findPriceById(int productId);
 
+    List<ProductPriceModel> findPricesByIds(Collection<Integer> productIds);
+
     List<ProductIdAndNameModel> findProductIdAndNameByUserId(int userId);
 
     int findUserIdByProductId(int productId);
@@ -1,30 +1,81 @@
 package com.nothing.stella.services;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nothing.stella.entity.Product;
-import com.nothing.stella.entity.ProductCategory;
 import com.nothing.stella.exception.EmptyImagesException;
 import com.nothing.stella.exception.ImageException;
+import com.nothing.stella.exception.InvalidCursorException;
+import com.nothing.stella.exception.InvalidImportManifestException;
+import com.nothing.stella.exception.InvalidPriceBucketException;
 import com.nothing.stella.exception.InvalidProductCategoryException;
 import com.nothing.stella.exception.InvalidProductException;
 import com.nothing.stella.exception.InvalidProductIdException;
 import com.nothing.stella.exception.InvalidStoreNameException;
 import com.nothing.stella.exception.UnAuthorizedUserException;
 import com.nothing.stella.exception.UsedProductNameException;
+import com.nothing.stella.miscellaneous.CsvReader;
+import com.nothing.stella.miscellaneous.Miscellaneous;
+import com.nothing.stella.miscellaneous.RankedIds;
+import com.nothing.stella.model.PageViewModel;
+import com.nothing.stella.model.ProductBrowseViewModel;
+import com.nothing.stella.model.ProductFacetResultModel;
 import com.nothing.stella.model.ProductIdAndNameModel;
+import com.nothing.stella.model.ProductImportResultModel;
+import com.nothing.stella.model.ProductImportRowModel;
 import com.nothing.stella.model.ProductInputModel;
+import com.nothing.stella.model.ProductPriceModel;
+import com.nothing.stella.model.ProductShortViewModel;
 import com.nothing.stella.model.ProductUpdateModel;
 import com.nothing.stella.model.ProductViewModel;
-import com.nothing.stella.repository.ProductCategoryRepository;
 import com.nothing.stella.repository.ProductRepository;
 
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
 @Service
 public class ProductServiceImpl implements ProductService {
 
@@ -33,11 +84,51 @@ public class ProductServiceImpl implements ProductService {
     @Autowired
     private UserService userService;
     @Autowired
-    private ProductCategoryRepository categoryRepository;
+    private ProductCategoryService productCategoryService;
     @Autowired
     private ImageService imageService;
     @Autowired
     private SellerService sellerService;
+    @Autowired
+    private ProductSearchService productSearchService;
+    @Autowired
+    private ProductFacetService productFacetService;
+    @Autowired
+    private ProductFuzzySearchService productFuzzySearchService;
+    @Autowired
+    private ProductFeatureService productFeatureService;
+    @Autowired
+    private ProductSuggestionService productSuggestionService;
+    @Autowired
+    private StockReservationService stockReservationService;
+    @Autowired
+    private ProductOwnershipService productOwnershipService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int FUZZY_RESULT_LIMIT = 100;
+    private static final int MAX_IMPORT_ROWS = 10000;
+    private static final int IMPORT_BATCH_SIZE = 500;
+    private static final int IMPORT_WORKERS = 8;
+    private static final String IMPORT_IMPORTED = "imported";
+    private static final String IMPORT_REJECTED = "rejected";
+    private static final List<String> IMPORT_COLUMNS = List.of("name", "description", "price", "stock", "category",
+            "active", "images");
+    private static final String INSERT_PRODUCT_SQL = "INSERT INTO products (user_id, name, description, price, stock, "
+            + "category_id, active, image1, image2, image3, image4, image5, image6, image7, image8, image9) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // bounded pool for import image writes, a full queue makes the submitting thread write itself
+    private final ExecutorService importExecutor = new ThreadPoolExecutor(IMPORT_WORKERS, IMPORT_WORKERS,
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(IMPORT_WORKERS * 4),
+            new ThreadPoolExecutor.CallerRunsPolicy());
     private final static String path = "/home/all_father/Documents/workshop/java/Stella/src/main/resources/static/products";
 
     @Override
@@ -67,72 +158,269 @@ public class ProductServiceImpl implements ProductService {
         Product product = productBuilder(userId, model, imageUrls);
 
         product = productRepository.save(product);
+        productOwnershipService.register(product.getId(), userId);
+        reindex(product);
 
         return convertToProductViewModel(product);
     }
 
     @Override
-    public List<ProductViewModel> getProductsBySearch(String search) {
+    public PageViewModel<ProductShortViewModel> getProductsBySearch(String search, String cursor, int size) {
+        size = pageSize(size);
+        // resolve matching ids from the in-memory index, then load only those rows
+        RankedIds ranked = productSearchService.search(search);
+
+        // nothing matched word for word, fall back to typo tolerant matching
+        if (ranked.size() == 0) {
+            ranked = productFuzzySearchService.search(search, FUZZY_RESULT_LIMIT);
+        }
+        // seek past the (score, id) of the last entry of the previous page
+        double afterScore = Double.MAX_VALUE;
+        int afterId = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = Miscellaneous.decodeCursor(cursor, 2);
+            afterScore = parseCursorDouble(parts[0]);
+            afterId = parseCursorInt(parts[1]);
+        }
+        // blend in rating and sales signals from memory, no queries at search time;
+        // only this page is ranked, one extra entry tells whether there is a next page
+        RankedIds page = productFeatureService.rankPage(ranked, afterScore, afterId, size + 1);
+        int end = Math.min(size, page.size());
+
+        List<Integer> ids = new ArrayList<Integer>(end);
+        for (int i = 0; i < end; i++) {
+            ids.add(page.getId(i));
+        }
 
-        List<Product> products = productRepository.findByNameContaining(search);
-        if (products != null) {
-            List<ProductViewModel> productsViewModels = new ArrayList<ProductViewModel>();
-            for (Product product : products) {
-                productsViewModels.add(convertToProductViewModel(product));
-            }
-            return productsViewModels;
-        } else {
-            return null;
+        List<ProductShortViewModel> productsViewModels = findShortInOrder(ids);
+
+        String nextCursor = null;
+        if (page.size() > size) {
+            nextCursor = Miscellaneous.encodeCursor(page.getScore(end - 1), page.getId(end - 1));
         }
+        return new PageViewModel<ProductShortViewModel>(productsViewModels, nextCursor);
     }
 
+    // unlike the public listings this stays on the full view model: the seller dashboard
+    // edits products from it and needs description, stock, active and every image
     @Override
     public List<ProductViewModel> getProductsByReference(String reference) {
         int userId = userService.findUserIdByReference(reference);
 
         List<Product> products = productRepository.findByUserId(userId);
-        if (products != null) {
-            List<ProductViewModel> productsViewModels = new ArrayList<ProductViewModel>();
-            for (Product product : products) {
-                productsViewModels.add(convertToProductViewModel(product));
-            }
-            return productsViewModels;
+        return convertToProductViewModels(products);
+    }
+
+    @Override
+    public ProductViewModel getProduct(int productId) {
+        Optional<Product> optionalProduct = productRepository.findById(productId);
+
+        if (optionalProduct.isPresent()) {
+            return convertToProductViewModel(optionalProduct.get());
         } else {
-            return null;
+            throw new InvalidProductIdException("Error: Product with id " + productId + " does not exist");
+        }
+    }
+
+    @Override
+    public List<ProductImportResultModel> importProducts(String reference, MultipartFile manifest,
+            MultipartFile archive) {
+        int userId = userService.findUserIdByReference(reference);
+
+        List<ProductImportRowModel> rows = readManifest(manifest);
+        List<ProductImportResultModel> results = new ArrayList<ProductImportResultModel>(rows.size());
+
+        // one query for the seller's names, every other check runs in memory
+        Set<String> usedNames = new HashSet<String>();
+        for (String name : productRepository.findNamesByUserId(userId)) {
+            usedNames.add(name.toLowerCase());
+        }
+
+        List<Product> products = new ArrayList<Product>();
+        List<ProductImportResultModel> pending = new ArrayList<ProductImportResultModel>();
+
+        File archiveFile = null;
+        try {
+            // a file backed archive lets the workers read entries concurrently
+            archiveFile = File.createTempFile("product-import-", ".zip");
+            archive.transferTo(archiveFile);
+
+            try (ZipFile zipFile = new ZipFile(archiveFile)) {
+                List<Future<List<String>>> imageWrites = new ArrayList<Future<List<String>>>(rows.size());
+                for (int i = 0; i < rows.size(); i++) {
+                    ProductImportRowModel row = rows.get(i);
+                    ProductImportResultModel result = new ProductImportResultModel(i + 1, 0,
+                            (row != null) ? row.getName() : null, IMPORT_REJECTED, null);
+                    results.add(result);
+
+                    String error = verifyImportRow(row, usedNames, zipFile);
+                    if (error != null) {
+                        result.setMessage(error);
+                        imageWrites.add(null);
+                        continue;
+                    }
+                    usedNames.add(row.getName().toLowerCase());
+                    imageWrites.add(importExecutor
+                            .submit(() -> imageService.save(userId, row.getName(), zipFile, row.getImages(), path)));
+                }
+
+                for (int i = 0; i < rows.size(); i++) {
+                    if (imageWrites.get(i) == null) {
+                        continue;
+                    }
+                    ProductImportRowModel row = rows.get(i);
+                    try {
+                        List<String> imageUrls = imageWrites.get(i).get();
+                        products.add(productBuilder(userId, toProductInputModel(row), imageUrls));
+                        pending.add(results.get(i));
+                    } catch (ExecutionException e) {
+                        results.get(i).setMessage(e.getCause().getMessage());
+                        discardImages(userId, row.getName());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        results.get(i).setMessage("Error: Import interrupted");
+                        discardImages(userId, row.getName());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new ImageException("Error: Failed to read image archive", e);
+        } finally {
+            if (archiveFile != null) {
+                archiveFile.delete();
+            }
         }
+
+        for (int from = 0; from < products.size(); from += IMPORT_BATCH_SIZE) {
+            int to = Math.min(from + IMPORT_BATCH_SIZE, products.size());
+            insertProducts(userId, products.subList(from, to), pending.subList(from, to));
+        }
+        return results;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportProducts(int userId, String format, OutputStream outputStream) throws IOException {
+        boolean csv = "csv".equals(format);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (csv) {
+            writer.write("id,name,description,price,stock,category,active,"
+                    + "image1,image2,image3,image4,image5,image6,image7,image8,image9\n");
+        }
+
+        // rows are written as they arrive and detached, so memory stays flat whatever the catalog size
+        try (Stream<Product> products = productRepository.streamByUserId(userId)) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                ProductViewModel viewModel = convertToProductViewModel(product);
+                if (csv) {
+                    writer.write(toCsvRow(viewModel));
+                } else {
+                    writer.write(objectMapper.writeValueAsString(viewModel));
+                }
+                writer.write("\n");
+                entityManager.detach(product);
+            }
+        }
+        writer.flush();
+    }
+
+    @Override
+    public ProductBrowseViewModel browse(String category, String priceBucket, int storeId, String cursor,
+            int size) {
+        size = pageSize(size);
+
+        int categoryId = 0;
+        if (category != null && !category.isEmpty()) {
+            categoryId = findIdByCategory(category);
+            if (categoryId == 0) {
+                throw new InvalidProductCategoryException("Error: Invalid product category");
+            }
+        }
+        int bucket = -1;
+        if (priceBucket != null && !priceBucket.isEmpty()) {
+            bucket = productFacetService.findPriceBucket(priceBucket);
+            if (bucket == -1) {
+                throw new InvalidPriceBucketException("Error: Invalid price bucket " + priceBucket);
+            }
+        }
+        int lastId = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            lastId = parseCursorInt(Miscellaneous.decodeCursor(cursor, 1)[0]);
+        }
+
+        // matching ids and facet counts come from bitmap intersections, only the page itself is loaded
+        ProductFacetResultModel facets = productFacetService.browse(categoryId, bucket, storeId, lastId, size + 1);
+        int[] productIds = facets.getProductIds();
+        boolean hasNext = productIds.length > size;
+
+        List<Integer> ids = new ArrayList<Integer>(size);
+        for (int i = 0; i < productIds.length && i < size; i++) {
+            ids.add(productIds[i]);
+        }
+        List<ProductShortViewModel> products = findShortInOrder(ids);
+
+        String nextCursor = hasNext ? Miscellaneous.encodeCursor(productIds[size - 1]) : null;
+
+        // translate category ids to names for the response
+        Map<String, Integer> categoryCounts = new HashMap<String, Integer>();
+        for (Map.Entry<Integer, Integer> entry : facets.getCategories().entrySet()) {
+            String name = productCategoryService.findCategoryById(entry.getKey());
+            if (name != null) {
+                categoryCounts.put(name, entry.getValue());
+            }
+        }
+
+        return new ProductBrowseViewModel(products, nextCursor, categoryCounts, facets.getPriceBuckets(),
+                facets.getStores());
     }
 
     @Override
-    public List<ProductViewModel> getProductsByStoreName(String storeName) {
+    public PageViewModel<ProductShortViewModel> getProductsByStoreName(String storeName, String cursor, int size) {
+        size = pageSize(size);
         int userId = sellerService.findUserIdByStoreName(storeName);
 
         if (userId == 0) {
             throw new InvalidStoreNameException("Error: store name " + storeName + " not found");
         }
 
-        List<Product> products = productRepository.findByUserId(userId);
-        if (products != null) {
-            List<ProductViewModel> productsViewModels = new ArrayList<ProductViewModel>();
-            for (Product product : products) {
-                productsViewModels.add(convertToProductViewModel(product));
-            }
-            return productsViewModels;
-        } else {
-            return null;
+        // seek on (price, id) so deep pages cost the same as the first one
+        double lastPrice = -1;
+        int lastId = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = Miscellaneous.decodeCursor(cursor, 2);
+            lastPrice = parseCursorDouble(parts[0]);
+            lastId = parseCursorInt(parts[1]);
+        }
+
+        // fetch one extra row to know whether another page exists
+        List<ProductShortViewModel> products = productRepository.findShortByUserIdAfter(userId, lastPrice, lastId,
+                PageRequest.of(0, size + 1));
+
+        boolean hasNext = products.size() > size;
+        if (hasNext) {
+            products = products.subList(0, size);
         }
+
+        String nextCursor = null;
+        if (hasNext) {
+            ProductShortViewModel last = products.get(products.size() - 1);
+            nextCursor = Miscellaneous.encodeCursor(last.getPrice(), last.getId());
+        }
+        return new PageViewModel<ProductShortViewModel>(products, nextCursor);
     }
 
     @Override
     public ProductViewModel update(String reference, ProductUpdateModel model, List<MultipartFile> images) {
         int userId = userService.findUserIdByReference(reference);
         Boolean isUpdateAvailable = false;
+        verifyOwner(userId, model.getId());
         Optional<Product> optionalProduct = productRepository.findById(model.getId());
 
         if (optionalProduct.isPresent()) {
             Product product = optionalProduct.get();
-            if (product.getUserId() != userId) {
-                throw new UnAuthorizedUserException("Access denied: you are not allowed to access this product");
-            }
 
             if (!model.getDescription().isEmpty()) {
                 isUpdateAvailable = true;
@@ -196,7 +484,20 @@ public class ProductServiceImpl implements ProductService {
 
             // save updated product information
             if (isUpdateAvailable) {
-                product = productRepository.save(product);
+                // stock is not updatable through save, a restock is its own update
+                Product updatedProduct = product;
+                product = transactionTemplate.execute(status -> {
+                    Product savedProduct = productRepository.save(updatedProduct);
+                    if (model.getStock() > 0) {
+                        productRepository.updateStockById(savedProduct.getId(), model.getStock());
+                        savedProduct.setStock(model.getStock());
+                    }
+                    return savedProduct;
+                });
+                if (model.getStock() > 0) {
+                    stockReservationService.invalidate(product.getId());
+                }
+                reindex(product);
             }
 
             return convertToProductViewModel(product);
@@ -208,15 +509,14 @@ public class ProductServiceImpl implements ProductService {
     @Override
     public ProductViewModel deactivate(String reference, int productId) {
         int userId = userService.findUserIdByReference(reference);
+        verifyOwner(userId, productId);
+        // only the flag is written, a full save would put back a stale stock and other fields
+        transactionTemplate.executeWithoutResult(status -> productRepository.updateActiveById(productId, false));
         Optional<Product> optionalProduct = productRepository.findById(productId);
 
         if (optionalProduct.isPresent()) {
             Product product = optionalProduct.get();
-            if (product.getUserId() != userId) {
-                throw new UnAuthorizedUserException("Access denied: you are not allowed to access this product");
-            }
-            product.setActive(false);
-            product = productRepository.save(product);
+            reindex(product);
             return convertToProductViewModel(product);
         } else {
             throw new InvalidProductIdException("Error: Product with id " + productId + " does not exist");
@@ -226,24 +526,232 @@ public class ProductServiceImpl implements ProductService {
     @Override
     public ProductViewModel activate(String reference, int productId) {
         int userId = userService.findUserIdByReference(reference);
+        verifyOwner(userId, productId);
+        // only the flag is written, a full save would put back a stale stock and other fields
+        transactionTemplate.executeWithoutResult(status -> productRepository.updateActiveById(productId, true));
         Optional<Product> optionalProduct = productRepository.findById(productId);
 
         if (optionalProduct.isPresent()) {
             Product product = optionalProduct.get();
-            if (product.getUserId() != userId) {
-                throw new UnAuthorizedUserException("Access denied: you are not allowed to access this product");
-            }
-            product.setActive(true);
-            product = productRepository.save(product);
+            reindex(product);
             return convertToProductViewModel(product);
         } else {
             throw new InvalidProductIdException("Error: Product with id " + productId + " does not exist");
         }
     }
 
+    @PreDestroy
+    public void shutdown() {
+        importExecutor.shutdown();
+    }
+
     // ----------------------------------------------------------------
     // HELPER FUNCTIONS FOR PRODUCTS
     // ----------------------------------------------------------------
+    // keep the in-memory indexes in sync with the saved product
+    private void reindex(Product product) {
+        productSearchService.index(product);
+        productFuzzySearchService.index(product);
+        productFacetService.index(product);
+        productSuggestionService.indexProduct(product);
+    }
+
+    // in-memory ownership check, foreign products are rejected before the entity is loaded
+    private void verifyOwner(int userId, int productId) {
+        int sellerId = productOwnershipService.findSellerId(productId);
+        if (sellerId == 0) {
+            throw new InvalidProductIdException("Error: Product with id " + productId + " does not exist");
+        }
+        if (sellerId != userId) {
+            throw new UnAuthorizedUserException("Access denied: you are not allowed to access this product");
+        }
+    }
+
+    // one batched insert per chunk, the ids come back as the batch's generated keys;
+    // (user_id, name) is not unique in the table, so they are never looked up by name
+    private void insertProducts(int userId, List<Product> products, List<ProductImportResultModel> results) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    connection -> connection.prepareStatement(INSERT_PRODUCT_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement statement, int i) throws SQLException {
+                            Product product = products.get(i);
+                            statement.setInt(1, product.getUserId());
+                            statement.setString(2, product.getName());
+                            statement.setString(3, product.getDescription());
+                            statement.setDouble(4, product.getPrice());
+                            statement.setInt(5, product.getStock());
+                            statement.setInt(6, product.getCategoryId());
+                            statement.setBoolean(7, product.isActive());
+                            statement.setString(8, product.getImage1());
+                            statement.setString(9, product.getImage2());
+                            statement.setString(10, product.getImage3());
+                            statement.setString(11, product.getImage4());
+                            statement.setString(12, product.getImage5());
+                            statement.setString(13, product.getImage6());
+                            statement.setString(14, product.getImage7());
+                            statement.setString(15, product.getImage8());
+                            statement.setString(16, product.getImage9());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return products.size();
+                        }
+                    }, keyHolder));
+        } catch (DataAccessException e) {
+            for (int i = 0; i < products.size(); i++) {
+                results.get(i).setMessage("Error: Failed to save product");
+                discardImages(userId, products.get(i).getName());
+            }
+            return;
+        }
+
+        // one key row per inserted row, in batch order
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            product.setId(((Number) keys.get(i).values().iterator().next()).intValue());
+
+            ProductImportResultModel result = results.get(i);
+            result.setProductId(product.getId());
+            result.setStatus(IMPORT_IMPORTED);
+            productOwnershipService.register(product.getId(), userId);
+            reindex(product);
+        }
+    }
+
+    private List<ProductImportRowModel> readManifest(MultipartFile manifest) {
+        String filename = (manifest.getOriginalFilename() != null) ? manifest.getOriginalFilename().toLowerCase() : "";
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(manifest.getInputStream(), StandardCharsets.UTF_8))) {
+            if (filename.endsWith(".csv")) {
+                return readCsvManifest(reader);
+            } else if (filename.endsWith(".ndjson") || filename.endsWith(".jsonl")) {
+                return readNdjsonManifest(reader);
+            } else {
+                throw new InvalidImportManifestException("Error: Manifest must be a .csv or .ndjson file");
+            }
+        } catch (IOException e) {
+            throw new InvalidImportManifestException("Error: Unable to read manifest");
+        }
+    }
+
+    // header row names the columns, images are archive entries separated by ';'
+    private List<ProductImportRowModel> readCsvManifest(BufferedReader reader) throws IOException {
+        CsvReader csvReader = new CsvReader(reader);
+        List<String> header = csvReader.next();
+        if (header == null) {
+            throw new InvalidImportManifestException("Error: Empty manifest");
+        }
+        Map<String, Integer> columns = new HashMap<String, Integer>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(), i);
+        }
+        for (String column : IMPORT_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new InvalidImportManifestException("Error: Manifest is missing column " + column);
+            }
+        }
+
+        List<ProductImportRowModel> rows = new ArrayList<ProductImportRowModel>();
+        List<String> record;
+        while ((record = csvReader.next()) != null) {
+            // skip blank lines
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            checkImportSize(rows.size());
+            try {
+                List<String> images = new ArrayList<String>();
+                for (String image : csvField(record, columns, "images").split(";")) {
+                    if (!image.isBlank()) {
+                        images.add(image.trim());
+                    }
+                }
+                rows.add(new ProductImportRowModel(csvField(record, columns, "name"),
+                        csvField(record, columns, "description"),
+                        Double.parseDouble(csvField(record, columns, "price")),
+                        Integer.parseInt(csvField(record, columns, "stock")),
+                        csvField(record, columns, "category"),
+                        Boolean.parseBoolean(csvField(record, columns, "active")),
+                        images));
+            } catch (NumberFormatException e) {
+                // reported as an unreadable row
+                rows.add(null);
+            }
+        }
+        return rows;
+    }
+
+    private List<ProductImportRowModel> readNdjsonManifest(BufferedReader reader) throws IOException {
+        List<ProductImportRowModel> rows = new ArrayList<ProductImportRowModel>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            checkImportSize(rows.size());
+            try {
+                rows.add(objectMapper.readValue(line, ProductImportRowModel.class));
+            } catch (JsonProcessingException e) {
+                // reported as an unreadable row
+                rows.add(null);
+            }
+        }
+        return rows;
+    }
+
+    private String csvField(List<String> record, Map<String, Integer> columns, String column) {
+        int index = columns.get(column);
+        return (index < record.size()) ? record.get(index).trim() : "";
+    }
+
+    private void checkImportSize(int rows) {
+        if (rows >= MAX_IMPORT_ROWS) {
+            throw new InvalidImportManifestException("Error: Manifest exceeds " + MAX_IMPORT_ROWS + " rows");
+        }
+    }
+
+    private String verifyImportRow(ProductImportRowModel row, Set<String> usedNames, ZipFile archive) {
+        if (row == null) {
+            return "Error: Unreadable row";
+        }
+        if (!verify(toProductInputModel(row))) {
+            return "Error: Invalid product";
+        }
+        if (findIdByCategory(row.getCategory()) == 0) {
+            return "Error: Invalid product category";
+        }
+        if (usedNames.contains(row.getName().toLowerCase())) {
+            return "Error: product name is already used";
+        }
+        if (row.getImages() == null || row.getImages().isEmpty()) {
+            return "Error: Empty images";
+        }
+        if (row.getImages().size() > 9) {
+            return "Error: A product can have at most 9 images";
+        }
+        for (String image : row.getImages()) {
+            if (archive.getEntry(image) == null) {
+                return "Error: Image " + image + " not found in archive";
+            }
+        }
+        return null;
+    }
+
+    private ProductInputModel toProductInputModel(ProductImportRowModel row) {
+        return new ProductInputModel(row.getName(), row.getDescription(), row.getPrice(), row.getStock(),
+                row.getCategory(), row.isActive());
+    }
+
+    private void discardImages(int userId, String name) {
+        ImageServiceImpl.deleteDirectory(new File(path + "/" + userId + "/" + name));
+    }
+
     private Product updateImageUrls(Product product, List<String> imageUrls) {
         int imageUrlsSize = imageUrls.size();
         for (int i = imageUrlsSize; i < 9; i++) {
@@ -294,6 +802,29 @@ public class ProductServiceImpl implements ProductService {
         return product;
     }
 
+    private int pageSize(int size) {
+        if (size < 1) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private int parseCursorInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Error: Invalid cursor");
+        }
+    }
+
+    private double parseCursorDouble(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Error: Invalid cursor");
+        }
+    }
+
     public Boolean verify(ProductInputModel product) {
         if (product.getName() == null || product.getName().isEmpty()) {
             return false;
@@ -311,11 +842,11 @@ public class ProductServiceImpl implements ProductService {
     }
 
     private ProductViewModel convertToProductViewModel(Product product) {
-        Optional<ProductCategory> productCategory = categoryRepository.findById(product.getCategoryId());
-        if (productCategory.isPresent()) {
+        String category = productCategoryService.findCategoryById(product.getCategoryId());
+        if (category != null) {
             return new ProductViewModel(product.getId(), product.getName(), product.getDescription(),
                     product.getPrice(),
-                    product.getStock(), productCategory.get().getCategory(), product.isActive(), product.getImage1(),
+                    product.getStock(), category, product.isActive(), product.getImage1(),
                     product.getImage2(),
                     product.getImage3(),
                     product.getImage4(), product.getImage5(), product.getImage6(), product.getImage7(),
@@ -325,9 +856,60 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
+    private String toCsvRow(ProductViewModel product) {
+        Object[] values = { product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                product.getStock(), product.getCategory(), product.getActive(), product.getImage1(),
+                product.getImage2(), product.getImage3(), product.getImage4(), product.getImage5(),
+                product.getImage6(), product.getImage7(), product.getImage8(), product.getImage9() };
+
+        StringBuilder rowBuilder = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                rowBuilder.append(",");
+            }
+            if (values[i] != null) {
+                String value = values[i].toString();
+                // quote fields that would otherwise break the row
+                if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+                    value = "\"" + value.replace("\"", "\"\"") + "\"";
+                }
+                rowBuilder.append(value);
+            }
+        }
+        return rowBuilder.toString();
+    }
+
+    // listing rows come straight from a projection, ordered like the given ids
+    private List<ProductShortViewModel> findShortInOrder(List<Integer> ids) {
+        Map<Integer, ProductShortViewModel> productsById = new HashMap<Integer, ProductShortViewModel>();
+        if (!ids.isEmpty()) {
+            for (ProductShortViewModel product : productRepository.findShortByIdIn(ids)) {
+                productsById.put(product.getId(), product);
+            }
+        }
+
+        List<ProductShortViewModel> products = new ArrayList<ProductShortViewModel>(ids.size());
+        for (int productId : ids) {
+            ProductShortViewModel product = productsById.get(productId);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    // categories come from the in-memory dictionary, so this runs no queries
+    private List<ProductViewModel> convertToProductViewModels(List<Product> products) {
+        List<ProductViewModel> productsViewModels = new ArrayList<ProductViewModel>(products.size());
+        for (Product product : products) {
+            productsViewModels.add(convertToProductViewModel(product));
+        }
+        return productsViewModels;
+    }
+
     @Override
     public int findIdByCategory(String category) {
-        return categoryRepository.findIdByCategory(category).orElse(0);
+        return productCategoryService.findIdByCategory(category);
     }
 
     @Override
@@ -335,6 +917,14 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.findPriceById(id).orElse(0.0);
     }
 
+    @Override
+    public List<ProductPriceModel> findPricesByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<ProductPriceModel>();
+        }
+        return productRepository.findPricesByIdIn(ids);
+    }
+
     @Override
     public Product findById(int id) {
         return productRepository.findById(id).orElse(null);
@@ -352,7 +942,7 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public int findUserIdByProductId(int productId) {
-        return productRepository.findUserIdByProductId(productId).orElse(0);
+        return productOwnershipService.findSellerId(productId);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.nothing.stella.services;
+
+import java.util.List;
+
+import com.nothing.stella.entity.Product;
+import com.nothing.stella.model.SuggestionViewModel;
+
+public interface ProductSuggestionService {
+    List<SuggestionViewModel> suggest(String prefix, int limit);
+
+    void indexProduct(Product product);
+
+    void indexStore(int userId, String storeName);
+
+    void recordSale(int productId, int quantity);
+
+    void recordCancel(int productId, int quantity);
+}
@@ -0,0 +1,153 @@
+package com.nothing.stella.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.nothing.stella.entity.Product;
+import com.nothing.stella.miscellaneous.SuggestionTrie;
+import com.nothing.stella.model.ProductNameAndSellerModel;
+import com.nothing.stella.model.ProductSalesModel;
+import com.nothing.stella.model.SellerIdAndStoreNameModel;
+import com.nothing.stella.model.SuggestionViewModel;
+import com.nothing.stella.repository.OrderItemRepository;
+import com.nothing.stella.repository.ProductRepository;
+import com.nothing.stella.repository.SellerRepository;
+
+import jakarta.annotation.PostConstruct;
+
+@Service
+public class ProductSuggestionServiceImpl implements ProductSuggestionService {
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SellerRepository sellerRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    private static final int MAX_SUGGESTIONS = 10;
+    private static final String PRODUCT = "product";
+    private static final String STORE = "store";
+
+    private final SuggestionTrie trie = new SuggestionTrie(MAX_SUGGESTIONS);
+    // what is currently in the trie, needed to take entries out again on rename / deactivate
+    private final Map<Integer, ProductNameAndSellerModel> products = new HashMap<Integer, ProductNameAndSellerModel>();
+    private final Map<Integer, String> stores = new HashMap<Integer, String>();
+    // popularity = units sold
+    private final Map<Integer, Long> productSales = new HashMap<Integer, Long>();
+    private final Map<Integer, Long> storeSales = new HashMap<Integer, Long>();
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSuggestionServiceImpl.class);
+
+    @PostConstruct
+    public synchronized void build() {
+        for (ProductSalesModel sales : orderItemRepository.findPaidSalesGroupByProductId()) {
+            productSales.put(sales.getProductId(), sales.getQuantity());
+        }
+
+        for (ProductNameAndSellerModel product : productRepository.findActiveProductNameAndSeller()) {
+            long sales = productSales.getOrDefault(product.getProductId(), 0L);
+            trie.add(product.getName(), PRODUCT, sales);
+            products.put(product.getProductId(), product);
+            storeSales.merge(product.getUserId(), sales, Long::sum);
+        }
+
+        for (SellerIdAndStoreNameModel seller : sellerRepository.findAllStoreNames()) {
+            if (seller.getStoreName() != null) {
+                trie.add(seller.getStoreName(), STORE, storeSales.getOrDefault(seller.getUserId(), 0L));
+                stores.put(seller.getUserId(), seller.getStoreName());
+            }
+        }
+
+        logger.info("Suggestion trie built: " + products.size() + " products, " + stores.size() + " stores");
+    }
+
+    @Override
+    public List<SuggestionViewModel> suggest(String prefix, int limit) {
+        List<SuggestionViewModel> suggestions = new ArrayList<SuggestionViewModel>();
+        if (prefix == null || prefix.isBlank()) {
+            return suggestions;
+        }
+
+        for (SuggestionTrie.Suggestion suggestion : trie.complete(prefix, Math.min(limit, MAX_SUGGESTIONS))) {
+            suggestions.add(new SuggestionViewModel(suggestion.getText(), suggestion.getType()));
+        }
+        return suggestions;
+    }
+
+    @Override
+    public synchronized void indexProduct(Product product) {
+        int productId = product.getId();
+        long sales = productSales.getOrDefault(productId, 0L);
+
+        ProductNameAndSellerModel old = products.remove(productId);
+        if (old != null) {
+            trie.remove(old.getName(), PRODUCT, sales);
+            storeSales.merge(old.getUserId(), -sales, Long::sum);
+            updateStoreWeight(old.getUserId(), -sales);
+        }
+
+        // inactive products are not suggested
+        if (product.isActive()) {
+            trie.add(product.getName(), PRODUCT, sales);
+            products.put(productId, new ProductNameAndSellerModel(productId, product.getUserId(), product.getName()));
+            storeSales.merge(product.getUserId(), sales, Long::sum);
+            updateStoreWeight(product.getUserId(), sales);
+        }
+    }
+
+    @Override
+    public synchronized void indexStore(int userId, String storeName) {
+        long sales = storeSales.getOrDefault(userId, 0L);
+
+        String old = stores.put(userId, storeName);
+        if (old != null) {
+            trie.remove(old, STORE, sales);
+        }
+        trie.add(storeName, STORE, sales);
+    }
+
+    @Override
+    public synchronized void recordSale(int productId, int quantity) {
+        productSales.merge(productId, (long) quantity, Long::sum);
+
+        ProductNameAndSellerModel product = products.get(productId);
+        if (product != null) {
+            trie.addWeight(product.getName(), PRODUCT, quantity);
+            storeSales.merge(product.getUserId(), (long) quantity, Long::sum);
+            updateStoreWeight(product.getUserId(), quantity);
+        }
+    }
+
+    // takes back at most what was counted, weights never go below zero
+    @Override
+    public synchronized void recordCancel(int productId, int quantity) {
+        long sales = productSales.getOrDefault(productId, 0L);
+        long delta = Math.min(sales, quantity);
+        if (delta == 0) {
+            return;
+        }
+        productSales.put(productId, sales - delta);
+
+        ProductNameAndSellerModel product = products.get(productId);
+        if (product != null) {
+            trie.addWeight(product.getName(), PRODUCT, -delta);
+            storeSales.merge(product.getUserId(), -delta, Long::sum);
+            updateStoreWeight(product.getUserId(), -delta);
+        }
+    }
+
+    private void updateStoreWeight(int userId, long delta) {
+        String storeName = stores.get(userId);
+        if (storeName != null && delta != 0) {
+            trie.addWeight(storeName, STORE, delta);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.nothing.stella.services;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.nothing.stella.exception.PaymentGatewayException;
+import com.nothing.stella.exception.PaymentGatewayRejectedException;
+import com.nothing.stella.miscellaneous.CircuitBreaker;
+import com.nothing.stella.model.PaymentGatewayOrderModel;
+import com.razorpay.RazorpayException;
+import com.razorpay.Utils;
+
+import jakarta.annotation.PostConstruct;
+
+@Service
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "razorpay", matchIfMissing = true)
+public class RazorpayPaymentGateway implements PaymentGateway {
+
+    private static final String API_URL = "https://api.razorpay.com/v1";
+
+    @Value("${razorpay.key.id}")
+    private String razorpayKey;
+    @Value("${razorpay.secret.key}")
+    private String razorpaySecret;
+    @Value("${razorpay.connect-timeout-ms:2000}")
+    private long connectTimeout;
+    @Value("${razorpay.read-timeout-ms:5000}")
+    private long readTimeout;
+    @Value("${razorpay.breaker.failure-threshold:5}")
+    private int failureThreshold;
+    @Value("${razorpay.breaker.open-ms:30000}")
+    private long openMillis;
+
+    // one thread-safe client for the whole application, it keeps a pool of
+    // live connections to the gateway and reuses them across request threads
+    private HttpClient httpClient;
+    private CircuitBreaker circuitBreaker;
+    private String authorization;
+
+    private static final Logger logger = LoggerFactory.getLogger(RazorpayPaymentGateway.class);
+
+    @PostConstruct
+    public void init() {
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeout))
+                .build();
+        circuitBreaker = new CircuitBreaker(failureThreshold, openMillis);
+        authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((razorpayKey + ":" + razorpaySecret).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public PaymentGatewayOrderModel createOrder(double amount, String currency, String receipt) {
+        JSONObject razorpayOrderRequest = new JSONObject();
+        razorpayOrderRequest.put("amount", Math.round(amount * 100)); // amount in paisa
+        razorpayOrderRequest.put("currency", currency);
+        razorpayOrderRequest.put("receipt", receipt);
+
+        HttpRequest request = requestBuilder("/orders")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(razorpayOrderRequest.toString()))
+                .build();
+
+        JSONObject razorpayOrder = send(request);
+        return new PaymentGatewayOrderModel(razorpayOrder.getString("id"), razorpayOrder.getString("status"));
+    }
+
+    @Override
+    public String findCapturedPaymentId(String gatewayOrderId) {
+        HttpRequest request = requestBuilder("/orders/" + gatewayOrderId + "/payments").GET().build();
+
+        JSONArray payments = send(request).getJSONArray("items");
+        for (int i = 0; i < payments.length(); i++) {
+            JSONObject payment = payments.getJSONObject(i);
+            if (payment.optBoolean("captured")) {
+                return payment.getString("id");
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean verifySignature(String gatewayOrderId, String paymentId, String signature) {
+        JSONObject options = new JSONObject();
+        options.put("razorpay_order_id", gatewayOrderId);
+        options.put("razorpay_payment_id", paymentId);
+        options.put("razorpay_signature", signature);
+
+        // local HMAC check, no network involved
+        try {
+            return Utils.verifyPaymentSignature(options, razorpaySecret);
+        } catch (RazorpayException e) {
+            logger.error("Error verifying payment signature: " + e.getMessage(), e);
+            return false;
+        }
+    }
+
+    @Override
+    public String getKeyId() {
+        return razorpayKey;
+    }
+
+    // ----------------------------------------------------------------
+    // HELPER FUNCTIONS FOR GATEWAY CALLS
+    // ----------------------------------------------------------------
+    private HttpRequest.Builder requestBuilder(String path) {
+        return HttpRequest.newBuilder(URI.create(API_URL + path))
+                .timeout(Duration.ofMillis(readTimeout))
+                .header("Authorization", authorization);
+    }
+
+    private JSONObject send(HttpRequest request) {
+        // fail fast while the gateway is known to be down
+        if (!circuitBreaker.allowRequest()) {
+            throw new PaymentGatewayException("Error: payment gateway unavailable");
+        }
+
+        HttpResponse<String> response;
+        boolean failed = true;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            // only gateway side errors count against the breaker, a rejected request does not
+            failed = response.statusCode() >= 500;
+        } catch (IOException e) {
+            // includes connect and read timeouts
+            throw new PaymentGatewayException("Error: payment gateway unreachable");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Error: payment gateway call interrupted");
+        } finally {
+            // every outcome is recorded, an unexpected exception must not leave a trial call open
+            if (failed) {
+                circuitBreaker.recordFailure();
+            } else {
+                circuitBreaker.recordSuccess();
+            }
+        }
+
+        if (response.statusCode() >= 500) {
+            throw new PaymentGatewayException("Error: payment gateway error " + response.statusCode());
+        }
+        if (response.statusCode() >= 400) {
+            logger.error("Payment gateway rejected request: " + response.body());
+            throw new PaymentGatewayRejectedException(
+                    "Error: payment gateway rejected request " + response.statusCode());
+        }
+
+        try {
+            return new JSONObject(response.body());
+        } catch (JSONException e) {
+            throw new PaymentGatewayException("Error: invalid payment gateway response");
+        }
+    }
+}
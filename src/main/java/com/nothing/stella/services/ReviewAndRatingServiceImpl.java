@@ -23,6 +23,8 @@ public class ReviewAndRatingServiceImpl implements ReviewAndRatingService {
     private UserService userService;
     @Autowired
     private OrderService orderService;
+    @Autowired
+    private ProductFeatureService productFeatureService;
 
     @Override
     public void create(String reference, int productId, int rating, String comment) {
@@ -43,6 +45,7 @@ public class ReviewAndRatingServiceImpl implements ReviewAndRatingService {
             if (isApplicable) {
                 // save the review
                 reviewAndRatingRepository.save(new ReviewAndRating(userId, productId, rating, comment));
+                productFeatureService.recordRating(productId, rating);
             } else {
                 throw new ReviewNotAllowedException("Warning: you cannot review this product");
             }
@@ -111,10 +114,12 @@ public class ReviewAndRatingServiceImpl implements ReviewAndRatingService {
 
             if (reviewAndRating.getUserId() == userId) {
                 // save the review
+                int oldRating = reviewAndRating.getRating();
                 reviewAndRating.setRating(rating);
                 reviewAndRating.setComment(comment);
 
                 reviewAndRatingRepository.save(reviewAndRating);
+                productFeatureService.updateRating(reviewAndRating.getProductId(), oldRating, rating);
             } else {
                 throw new ReviewNotAllowedException("Warning: you cannot update review for this product");
             }
@@ -1,12 +1,19 @@
 package com.nothing.stella.services;
 
+import java.time.LocalDate;
 import java.util.List;
 
+import com.nothing.stella.model.PageViewModel;
 import com.nothing.stella.model.SellerOrderViewModel;
 import com.nothing.stella.model.UpdateOrderItemStatusModal;
 
 public interface SellerDashboardService {
     List<SellerOrderViewModel> fetchOrders(String reference);
 
+    PageViewModel<SellerOrderViewModel> fetchOrders(String reference, LocalDate from, LocalDate to, String cursor,
+            int size);
+
     List<SellerOrderViewModel> updateOrderItemStatus(String reference, UpdateOrderItemStatusModal request);
+
+    List<SellerOrderViewModel> updateOrderItemStatuses(String reference, List<UpdateOrderItemStatusModal> requests);
 }
@@ -1,5 +1,8 @@
 package com.nothing.stella.services;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,6 +10,7 @@ import org.springframework.stereotype.Service;
 
 import com.nothing.stella.exception.InvalidOrderItemStatusException;
 import com.nothing.stella.exception.UnAuthorizedUserException;
+import com.nothing.stella.model.PageViewModel;
 import com.nothing.stella.model.SellerOrderViewModel;
 import com.nothing.stella.model.UpdateOrderItemStatusModal;
 
@@ -25,6 +29,19 @@ public class SellerDashboardServiceImpl implements SellerDashboardService {
         return orderService.fetchAllOrders(sellerId);
     }
 
+    // both dates are inclusive days in the server time zone
+    @Override
+    public PageViewModel<SellerOrderViewModel> fetchOrders(String reference, LocalDate from, LocalDate to,
+            String cursor, int size) {
+        int sellerId = userService.findUserIdByReference(reference);
+
+        ZoneId zone = ZoneId.systemDefault();
+        Date fromDate = (from == null) ? null : Date.from(from.atStartOfDay(zone).toInstant());
+        Date untilDate = (to == null) ? null : Date.from(to.plusDays(1).atStartOfDay(zone).toInstant());
+
+        return orderService.fetchSellerOrders(sellerId, fromDate, untilDate, cursor, size);
+    }
+
     @Override
     public List<SellerOrderViewModel> updateOrderItemStatus(String reference, UpdateOrderItemStatusModal request) {
         int sellerId = userService.findUserIdByReference(reference);
@@ -55,4 +72,13 @@ public class SellerDashboardServiceImpl implements SellerDashboardService {
         }
     }
 
+    // returns only the order items that changed, not the whole order history
+    @Override
+    public List<SellerOrderViewModel> updateOrderItemStatuses(String reference,
+            List<UpdateOrderItemStatusModal> requests) {
+        int sellerId = userService.findUserIdByReference(reference);
+
+        return orderService.updateOrderItemStatuses(sellerId, requests);
+    }
+
 }
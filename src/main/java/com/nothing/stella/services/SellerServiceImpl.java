@@ -41,6 +41,8 @@ public class SellerServiceImpl implements SellerService {
     private ImageService imageService;
     @Autowired
     private UpdateVerificationTokenService updateVerificationTokenService;
+    @Autowired
+    private ProductSuggestionService productSuggestionService;
 
     private final static String path = "/home/all_father/Documents/workshop/java/Stella/src/main/resources/static/storeLogos";
     private static final String verificationLink = "http://localhost:8080/sellers/verify-update?token=";
@@ -59,6 +61,7 @@ public class SellerServiceImpl implements SellerService {
 
         Seller seller = new Seller(userId, model.getStoreName(), model.getAddress());
         seller = sellerRepository.save(seller);
+        productSuggestionService.indexStore(userId, seller.getStoreName());
 
         // create new seller role
         Roles roles = new Roles(userId, "ROLE_SELLER");
@@ -76,6 +79,7 @@ public class SellerServiceImpl implements SellerService {
 
         Seller seller = new Seller(userId, model.getStoreName(), model.getAddress());
         seller = sellerRepository.save(seller);
+        productSuggestionService.indexStore(userId, seller.getStoreName());
 
         // create new seller role
         Roles roles = new Roles(userId, "ROLE_SELLER");
@@ -102,6 +106,7 @@ public class SellerServiceImpl implements SellerService {
             }
             // Save updated value to seller
             sellerRepository.save(seller);
+            productSuggestionService.indexStore(userId, seller.getStoreName());
 
             // Delete verification token
             updateVerificationTokenService.delete(updateVerificationToken);
@@ -0,0 +1,15 @@
+package com.nothing.stella.services;
+
+import java.util.List;
+
+import com.nothing.stella.entity.OrderItem;
+
+public interface StockReservationService {
+    void reserve(List<OrderItem> orderItems);
+
+    void release(List<OrderItem> orderItems);
+
+    void release(int productId, int quantity);
+
+    void invalidate(int productId);
+}
@@ -0,0 +1,143 @@
+package com.nothing.stella.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.nothing.stella.entity.OrderItem;
+import com.nothing.stella.exception.InvalidProductQuantityException;
+import com.nothing.stella.miscellaneous.StripedCounter;
+import com.nothing.stella.model.ProductPriceModel;
+import com.nothing.stella.repository.ProductRepository;
+
+@Service
+public class StockReservationServiceImpl implements StockReservationService {
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private static final int STRIPES = 8;
+    // a memory "sold out" older than this is checked against the database before rejecting
+    private static final long REFRESH_INTERVAL = 5 * 1000; // 5 seconds
+
+    // available stock per product as last known, admission control in front of the rows;
+    // the conditional update on products.stock stays the source of truth
+    private final ConcurrentHashMap<Integer, StripedCounter> counters = new ConcurrentHashMap<Integer, StripedCounter>();
+
+    @Override
+    public void reserve(List<OrderItem> orderItems) {
+        // merged per product, ascending ids so concurrent orders lock rows in the same order
+        int[] productIds = orderItems.stream().mapToInt(OrderItem::getProductId).sorted().distinct().toArray();
+        int[] quantities = new int[productIds.length];
+        for (OrderItem orderItem : orderItems) {
+            quantities[Arrays.binarySearch(productIds, orderItem.getProductId())] += orderItem.getQuantity();
+        }
+        load(productIds, false);
+
+        int acquired = 0;
+        int[] conflict = { -1 };
+        try {
+            // sold out products are rejected here without touching the database
+            for (; acquired < productIds.length; acquired++) {
+                if (!acquire(productIds[acquired], quantities[acquired])) {
+                    throw new InvalidProductQuantityException(
+                            "Error: Not enough stock for product with id " + productIds[acquired]);
+                }
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < productIds.length; i++) {
+                    if (productRepository.reserveStock(productIds[i], quantities[i]) == 0) {
+                        conflict[0] = productIds[i];
+                        throw new InvalidProductQuantityException(
+                                "Error: Not enough stock for product with id " + productIds[i]);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            for (int i = 0; i < acquired; i++) {
+                StripedCounter counter = counters.get(productIds[i]);
+                if (counter != null) {
+                    counter.release(quantities[i]);
+                }
+            }
+            // memory admitted what the row refused, start over from the row
+            if (conflict[0] != -1) {
+                invalidate(conflict[0]);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void release(List<OrderItem> orderItems) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (OrderItem orderItem : orderItems) {
+                release(orderItem.getProductId(), orderItem.getQuantity());
+            }
+        });
+    }
+
+    // joins the caller's transaction when there is one
+    @Override
+    public void release(int productId, int quantity) {
+        transactionTemplate.executeWithoutResult(status -> productRepository.releaseStock(productId, quantity));
+
+        StripedCounter counter = counters.get(productId);
+        if (counter != null) {
+            counter.release(quantity);
+        }
+    }
+
+    // stock changed outside of reservations, e.g. a seller restock
+    @Override
+    public void invalidate(int productId) {
+        counters.remove(productId);
+    }
+
+    // ----------------------------------------------------------------
+    // HELPER FUNCTIONS FOR COUNTERS
+    // ----------------------------------------------------------------
+    private boolean acquire(int productId, int quantity) {
+        StripedCounter counter = counters.get(productId);
+        if (counter != null && counter.tryAcquire(quantity)) {
+            return true;
+        }
+        // an old snapshot may miss a restock or a release made by another instance
+        if (counter == null || System.currentTimeMillis() - counter.getCreatedAt() > REFRESH_INTERVAL) {
+            load(new int[] { productId }, true);
+            counter = counters.get(productId);
+            return counter != null && counter.tryAcquire(quantity);
+        }
+        return false;
+    }
+
+    // one IN query for every product without a counter (or all given ones when reloading)
+    private void load(int[] productIds, boolean reload) {
+        List<Integer> missing = new ArrayList<Integer>();
+        for (int productId : productIds) {
+            if (reload || !counters.containsKey(productId)) {
+                missing.add(productId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        for (ProductPriceModel product : productRepository.findPricesByIdIn(missing)) {
+            StripedCounter counter = new StripedCounter(STRIPES, product.getStock());
+            if (reload) {
+                counters.put(product.getProductId(), counter);
+            } else {
+                counters.putIfAbsent(product.getProductId(), counter);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.nothing.stella.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.nothing.stella.exception.PaymentGatewayException;
+import com.nothing.stella.model.PaymentGatewayOrderModel;
+
+import jakarta.annotation.PostConstruct;
+
+// In-JVM gateway for load tests of the checkout path, enabled with payment.gateway=stub.
+// It accepts every signature, never use it outside test environments.
+@Service
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "stub")
+public class StubPaymentGateway implements PaymentGateway {
+
+    // simulated gateway round trip
+    @Value("${payment.stub.latency-ms:0}")
+    private long latency;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private static final Logger logger = LoggerFactory.getLogger(StubPaymentGateway.class);
+
+    @PostConstruct
+    public void init() {
+        logger.warn("Stub payment gateway is active, payments are not real");
+    }
+
+    @Override
+    public PaymentGatewayOrderModel createOrder(double amount, String currency, String receipt) {
+        simulateLatency();
+        return new PaymentGatewayOrderModel("order_stub_" + sequence.incrementAndGet(), "created");
+    }
+
+    @Override
+    public String findCapturedPaymentId(String gatewayOrderId) {
+        simulateLatency();
+        return null;
+    }
+
+    @Override
+    public boolean verifySignature(String gatewayOrderId, String paymentId, String signature) {
+        return true;
+    }
+
+    @Override
+    public String getKeyId() {
+        return "stub";
+    }
+
+    private void simulateLatency() {
+        if (latency <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Error: payment gateway call interrupted");
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import com.nothing.stella.entity.User;
 import com.nothing.stella.entity.VerificationToken;
 import com.nothing.stella.entity.Address;
@@ -54,7 +55,9 @@ public class UserAdvanceServiceImpl implements UserAdvanceService {
     // service methods for user
     // ----------------------------------------------------------------
 
+    // the user, its role, the token and the queued verification email commit together
     @Override
+    @Transactional
     public boolean register(UserInputModel userModel) {
         // vrify user details
         verifyUserDetails(userModel);
@@ -3,8 +3,6 @@ package com.nothing.stella.services;
 import java.util.Date;
 import java.util.UUID;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -27,8 +25,6 @@ public class VerificationTokenServiceImpl implements VerificationTokenService {
     @Autowired
     private UserService userService;
 
-    private static final Logger logger = LoggerFactory.getLogger(VerificationTokenServiceImpl.class);
-
     @Override
     public void sender(String reference) {
         User user = userService.get(reference);
@@ -41,11 +37,8 @@ public class VerificationTokenServiceImpl implements VerificationTokenService {
                 verificationLink + token, verificationLink + token, EXPIRATION, applicationName,
                 applicationName);
 
-        try {
-            emailService.sendEmail(email, emailSubject, formatedMessage);
-        } catch (Exception e) {
-            logger.error("Error sending email: " + e.getMessage(), e);
-        }
+        // queued in the caller's transaction, a failure rolls the caller back
+        emailService.sendEmail(email, emailSubject, formatedMessage);
     }
 
     @Override
@@ -57,11 +50,8 @@ public class VerificationTokenServiceImpl implements VerificationTokenService {
                 verificationLink + token, verificationLink + token, EXPIRATION, applicationName,
                 applicationName);
 
-        try {
-            emailService.sendEmail(email, emailSubject, formatedMessage);
-        } catch (Exception e) {
-            logger.error("Error sending email: " + e.getMessage(), e);
-        }
+        // queued in the caller's transaction, a failure rolls the caller back
+        emailService.sendEmail(email, emailSubject, formatedMessage);
     }
 
     @Override
@@ -0,0 +1,71 @@
+package com.nothing.stella.miscellaneous;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CsvReaderTest {
+
+    @Test
+    void readsPlainRecords() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("name,price\nphone,100\n"));
+
+        assertEquals(List.of("name", "price"), reader.next());
+        assertEquals(List.of("phone", "100"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void keepsCommasAndDoubledQuotesInsideQuotes() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("\"red, large\",\"the \"\"best\"\" one\",5"));
+
+        assertEquals(List.of("red, large", "the \"best\" one", "5"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void keepsLineBreaksInsideQuotes() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("1,\"first line\nsecond line\r\nthird\",x\n2,y,z"));
+
+        assertEquals(List.of("1", "first line\nsecond line\r\nthird", "x"), reader.next());
+        assertEquals(List.of("2", "y", "z"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void treatsCrlfAsOneLineBreak() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,b\r\nc,d\r\n"));
+
+        assertEquals(List.of("a", "b"), reader.next());
+        assertEquals(List.of("c", "d"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void keepsEmptyFields() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(",,\"\"\n\n"));
+
+        assertEquals(List.of("", "", ""), reader.next());
+        // a blank line is one empty field, the importer skips it
+        assertEquals(List.of(""), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void closesUnterminatedQuoteAtEndOfInput() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,\"open"));
+
+        assertEquals(List.of("a", "open"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void returnsNullForEmptyInput() throws IOException {
+        assertNull(new CsvReader(new StringReader("")).next());
+    }
+}
@@ -0,0 +1,62 @@
+package com.nothing.stella.miscellaneous;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ExpiringCacheTest {
+
+    private static final long LONG_TTL = 60 * 1000;
+
+    @Test
+    void returnsLiveEntries() {
+        ExpiringCache<Integer, String> cache = new ExpiringCache<Integer, String>(10, LONG_TTL);
+        cache.put(1, "created");
+
+        assertEquals("created", cache.get(1));
+        assertNull(cache.get(2));
+    }
+
+    @Test
+    void dropsExpiredEntries() {
+        ExpiringCache<Integer, String> cache = new ExpiringCache<Integer, String>(10, LONG_TTL);
+        cache.put(1, "created", 0);
+
+        assertNull(cache.get(1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void putIfAbsentKeepsALiveEntry() {
+        ExpiringCache<Integer, String> cache = new ExpiringCache<Integer, String>(10, LONG_TTL);
+        cache.put(1, "paid");
+
+        assertFalse(cache.putIfAbsent(1, "created", LONG_TTL));
+        assertEquals("paid", cache.get(1));
+    }
+
+    @Test
+    void putIfAbsentReplacesAnExpiredEntry() {
+        ExpiringCache<Integer, String> cache = new ExpiringCache<Integer, String>(10, LONG_TTL);
+        cache.put(1, "created", 0);
+
+        assertTrue(cache.putIfAbsent(1, "paid", LONG_TTL));
+        assertEquals("paid", cache.get(1));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        ExpiringCache<Integer, String> cache = new ExpiringCache<Integer, String>(2, LONG_TTL);
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.get(1);
+        cache.put(3, "c");
+
+        assertEquals("a", cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals("c", cache.get(3));
+    }
+}
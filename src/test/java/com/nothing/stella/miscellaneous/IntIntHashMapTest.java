@@ -0,0 +1,111 @@
+package com.nothing.stella.miscellaneous;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class IntIntHashMapTest {
+
+    @Test
+    void returnsDefaultForMissingKeys() {
+        IntIntHashMap map = new IntIntHashMap(4);
+        map.put(7, 70);
+
+        assertEquals(70, map.get(7, -1));
+        assertEquals(-1, map.get(8, -1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void overwritesExistingKeys() {
+        IntIntHashMap map = new IntIntHashMap(4);
+        map.put(7, 70);
+        map.put(7, 71);
+
+        assertEquals(71, map.get(7, 0));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void keepsEveryEntryAcrossResizes() {
+        // starts at 16 slots, grows several times
+        IntIntHashMap map = new IntIntHashMap(1);
+        for (int key = 1; key <= 10000; key++) {
+            map.put(key, key * 3);
+        }
+
+        assertEquals(10000, map.size());
+        for (int key = 1; key <= 10000; key++) {
+            assertEquals(key * 3, map.get(key, 0));
+        }
+        assertEquals(0, map.get(10001, 0));
+    }
+
+    @Test
+    void wrapsProbesPastTheEndOfTheTable() {
+        // keys that hash to the last slot of a 16 slot table collide there and wrap to the front
+        IntIntHashMap map = new IntIntHashMap(8);
+        int[] keys = new int[4];
+        int found = 0;
+        for (int key = 1; found < keys.length; key++) {
+            int hash = key * 0x9E3779B9;
+            if (((hash ^ (hash >>> 16)) & 15) == 15) {
+                keys[found++] = key;
+            }
+        }
+
+        for (int key : keys) {
+            map.put(key, -key);
+        }
+        for (int key : keys) {
+            assertEquals(-key, map.get(key, 0));
+        }
+        assertEquals(keys.length, map.size());
+    }
+
+    @Test
+    void matchesHashMapOnRandomKeys() {
+        IntIntHashMap map = new IntIntHashMap(16);
+        Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        Random random = new Random(7);
+        for (int i = 0; i < 50000; i++) {
+            int key = random.nextInt();
+            if (key == 0) {
+                continue;
+            }
+            map.put(key, i);
+            expected.put(key, i);
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue().intValue(), map.get(entry.getKey(), -1));
+        }
+    }
+
+    @Test
+    void clearsAllEntries() {
+        IntIntHashMap map = new IntIntHashMap(4);
+        for (int key = 1; key <= 100; key++) {
+            map.put(key, key);
+        }
+        map.clear();
+
+        assertEquals(0, map.size());
+        assertEquals(0, map.get(50, 0));
+        map.put(50, 5);
+        assertEquals(5, map.get(50, 0));
+    }
+
+    @Test
+    void rejectsTheFreeKey() {
+        IntIntHashMap map = new IntIntHashMap(4);
+
+        assertThrows(IllegalArgumentException.class, () -> map.put(0, 1));
+    }
+}
@@ -0,0 +1,61 @@
+package com.nothing.stella.miscellaneous;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class RankedIdsTest {
+
+    @Test
+    void ordersByScoreDescThenIdAsc() {
+        RankedIds ranked = new RankedIds(new int[] { 7, 3, 9, 1, 5 }, new double[] { 0.5, 0.9, 0.5, 0.1, 0.9 });
+
+        int[] expected = { 3, 5, 7, 9, 1 };
+        assertEquals(expected.length, ranked.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], ranked.getId(i));
+        }
+        assertEquals(0.9, ranked.getScore(0));
+        assertEquals(0.1, ranked.getScore(4));
+    }
+
+    @Test
+    void seeksPastThePreviousPage() {
+        RankedIds ranked = new RankedIds(new int[] { 7, 3, 9, 1, 5 }, new double[] { 0.5, 0.9, 0.5, 0.1, 0.9 });
+
+        // ranked: (0.9,3) (0.9,5) (0.5,7) (0.5,9) (0.1,1)
+        assertEquals(2, ranked.seek(0.9, 5));
+        assertEquals(3, ranked.seek(0.5, 7));
+        assertEquals(5, ranked.seek(0.1, 1));
+        // a cursor entry that has since disappeared still lands in place
+        assertEquals(3, ranked.seek(0.5, 8));
+        assertEquals(0, ranked.seek(1.0, 100));
+    }
+
+    @Test
+    void equalScoresFallBackToIdOrder() {
+        RankedIds ranked = RankedIds.of(new int[] { 2, 4, 8 }, 1.0);
+
+        assertEquals(2, ranked.getId(0));
+        assertEquals(8, ranked.getId(2));
+        assertEquals(2, ranked.seek(1.0, 4));
+    }
+
+    @Test
+    void clampsScoresOutOfRange() {
+        RankedIds ranked = new RankedIds(new int[] { 1, 2 }, new double[] { -3.0, 0.25 });
+
+        assertEquals(2, ranked.getId(0));
+        assertEquals(1, ranked.getId(1));
+        assertEquals(0.0, ranked.getScore(1));
+    }
+
+    @Test
+    void quantizeMatchesTheStoredScore() {
+        double score = 0.123456789;
+        RankedIds ranked = new RankedIds(new int[] { 1 }, new double[] { score });
+
+        assertEquals(ranked.getScore(0), RankedIds.quantize(score));
+        assertEquals(0.0, RankedIds.quantize(-1.0));
+    }
+}
@@ -0,0 +1,67 @@
+package com.nothing.stella.miscellaneous;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SortedIntListTest {
+
+    @Test
+    void keepsValuesSortedAndDistinct() {
+        SortedIntList list = new SortedIntList();
+        for (int value : new int[] { 5, 1, 9, 3, 5, 7, 1, 12, 0 }) {
+            list.add(value);
+        }
+
+        assertArrayEquals(new int[] { 0, 1, 3, 5, 7, 9, 12 }, list.toArray());
+        assertTrue(list.contains(7));
+        assertFalse(list.contains(8));
+    }
+
+    @Test
+    void reportsDuplicatesAndMissingRemovals() {
+        SortedIntList list = new SortedIntList(new int[] { 2, 4, 6 });
+
+        assertFalse(list.add(4));
+        assertTrue(list.add(5));
+        assertTrue(list.remove(2));
+        assertFalse(list.remove(2));
+        assertArrayEquals(new int[] { 4, 5, 6 }, list.toArray());
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        SortedIntList list = new SortedIntList();
+        int[] expected = new int[1000];
+        for (int i = 999; i >= 0; i--) {
+            list.add(i);
+            expected[i] = i;
+        }
+
+        assertArrayEquals(expected, list.toArray());
+    }
+
+    @Test
+    void removesDownToEmpty() {
+        SortedIntList list = new SortedIntList(new int[0]);
+        list.add(3);
+        list.remove(3);
+
+        assertTrue(list.isEmpty());
+        assertTrue(list.add(1));
+        assertArrayEquals(new int[] { 1 }, list.toArray());
+    }
+
+    @Test
+    void intersectsAndUnitesSortedArrays() {
+        int[] a = { 1, 3, 5, 7, 9 };
+        int[] b = { 2, 3, 4, 7, 10 };
+
+        assertArrayEquals(new int[] { 3, 7 }, SortedIntList.intersect(a, b));
+        assertArrayEquals(new int[] { 1, 2, 3, 4, 5, 7, 9, 10 }, SortedIntList.union(a, b));
+        assertArrayEquals(new int[0], SortedIntList.intersect(a, new int[0]));
+        assertArrayEquals(a, SortedIntList.union(a, new int[0]));
+    }
+}
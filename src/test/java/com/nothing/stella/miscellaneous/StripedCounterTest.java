@@ -0,0 +1,138 @@
+package com.nothing.stella.miscellaneous;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class StripedCounterTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    void acquiresAcrossStripes() {
+        // 10 over 8 stripes: no single stripe holds more than 3
+        StripedCounter counter = new StripedCounter(8, 10);
+
+        assertTrue(counter.tryAcquire(7));
+        assertEquals(3, counter.sum());
+        assertTrue(counter.tryAcquire(3));
+        assertEquals(0, counter.sum());
+        assertFalse(counter.tryAcquire(1));
+    }
+
+    @Test
+    void rejectsWithoutTouchingTheStripes() {
+        StripedCounter counter = new StripedCounter(8, 10);
+
+        assertFalse(counter.tryAcquire(11));
+        assertEquals(10, counter.sum());
+        assertTrue(counter.tryAcquire(10));
+    }
+
+    @Test
+    void releasedUnitsCanBeAcquiredAgain() {
+        StripedCounter counter = new StripedCounter(4, 0);
+        assertFalse(counter.tryAcquire(1));
+
+        counter.release(5);
+        counter.release(5);
+        assertEquals(10, counter.sum());
+        assertTrue(counter.tryAcquire(10));
+    }
+
+    @Test
+    void clampsNegativeInitialStock() {
+        StripedCounter counter = new StripedCounter(4, -3);
+
+        assertEquals(0, counter.sum());
+        assertFalse(counter.tryAcquire(1));
+    }
+
+    @Test
+    void concurrentAcquiresTakeEveryUnitExactlyOnce() throws Exception {
+        StripedCounter counter = new StripedCounter(8, 100000);
+
+        List<Integer> acquired = runConcurrently(() -> {
+            int count = 0;
+            while (counter.tryAcquire(1)) {
+                count++;
+            }
+            return count;
+        });
+
+        int total = 0;
+        for (int count : acquired) {
+            total += count;
+        }
+        assertEquals(100000, total);
+        assertEquals(0, counter.sum());
+    }
+
+    @Test
+    void failedPooledAcquiresAreInvisibleToReaders() throws Exception {
+        StripedCounter counter = new StripedCounter(8, 100);
+
+        List<Integer> dips = runConcurrently(() -> {
+            int seen = 0;
+            for (int i = 0; i < 20000; i++) {
+                if (Thread.currentThread().getId() % 2 == 0) {
+                    assertFalse(counter.tryAcquire(101));
+                } else if (counter.sum() != 100) {
+                    seen++;
+                }
+            }
+            return seen;
+        });
+
+        for (int seen : dips) {
+            assertEquals(0, seen);
+        }
+    }
+
+    @Test
+    void pooledAcquiresKeepTheTotalConsistent() throws Exception {
+        StripedCounter counter = new StripedCounter(8, 1000);
+
+        // amounts above a stripe's share force the pooled path
+        runConcurrently(() -> {
+            Random random = new Random();
+            for (int i = 0; i < 20000; i++) {
+                int amount = 1 + random.nextInt(300);
+                if (counter.tryAcquire(amount)) {
+                    counter.release(amount);
+                }
+            }
+            return 0;
+        });
+
+        assertEquals(1000, counter.sum());
+        assertTrue(counter.tryAcquire(1000));
+    }
+
+    private static List<Integer> runConcurrently(Callable<Integer> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(task));
+            }
+            List<Integer> results = new ArrayList<Integer>();
+            for (Future<Integer> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
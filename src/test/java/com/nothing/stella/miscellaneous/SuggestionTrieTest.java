@@ -0,0 +1,97 @@
+package com.nothing.stella.miscellaneous;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SuggestionTrieTest {
+
+    @Test
+    void ranksByWeightThenText() {
+        SuggestionTrie trie = new SuggestionTrie(10);
+        trie.add("Phone", "product", 5);
+        trie.add("Phone Case", "product", 9);
+        trie.add("Photo Frame", "product", 5);
+        trie.add("Laptop", "product", 50);
+
+        assertEquals(List.of("Phone Case", "Phone", "Photo Frame"), texts(trie.complete("ph", 10)));
+        assertEquals(List.of("Phone Case", "Phone"), texts(trie.complete("PHON", 10)));
+        assertEquals(List.of("Laptop"), texts(trie.complete("l", 10)));
+        assertTrue(trie.complete("x", 10).isEmpty());
+    }
+
+    @Test
+    void keepsOnlyTopEntriesPerNode() {
+        SuggestionTrie trie = new SuggestionTrie(2);
+        trie.add("aa", "product", 1);
+        trie.add("ab", "product", 3);
+        trie.add("ac", "product", 2);
+
+        assertEquals(List.of("ab", "ac"), texts(trie.complete("a", 10)));
+        assertEquals(List.of("ab"), texts(trie.complete("a", 1)));
+    }
+
+    @Test
+    void countsReferencesBeforeRemoving() {
+        SuggestionTrie trie = new SuggestionTrie(10);
+        trie.add("Stella Store", "store", 0);
+        trie.add("Stella Store", "store", 0);
+        trie.add("Stella Store", "product", 4);
+
+        trie.remove("Stella Store", "store", 0);
+        assertEquals(2, trie.complete("stella", 10).size());
+
+        trie.remove("Stella Store", "store", 0);
+        List<SuggestionTrie.Suggestion> left = trie.complete("stella", 10);
+        assertEquals(1, left.size());
+        assertEquals("product", left.get(0).getType());
+    }
+
+    @Test
+    void loweredWeightLetsOthersBackIntoTheTop() {
+        SuggestionTrie trie = new SuggestionTrie(2);
+        trie.add("aa", "product", 1);
+        trie.add("ab", "product", 3);
+        trie.add("ac", "product", 2);
+
+        // e.g. a canceled sale
+        trie.addWeight("ab", "product", -3);
+        assertEquals(List.of("ac", "aa"), texts(trie.complete("a", 10)));
+    }
+
+    @Test
+    void prunesEmptyBranches() {
+        SuggestionTrie trie = new SuggestionTrie(10);
+        trie.add("tv", "product", 1);
+        trie.remove("tv", "product", 1);
+
+        assertTrue(trie.complete("t", 10).isEmpty());
+        trie.add("tablet", "product", 1);
+        assertEquals(List.of("tablet"), texts(trie.complete("t", 10)));
+    }
+
+    @Test
+    void reordersOnAddedWeight() {
+        SuggestionTrie trie = new SuggestionTrie(10);
+        trie.add("mouse", "product", 1);
+        trie.add("monitor", "product", 2);
+
+        trie.addWeight("mouse", "product", 5);
+
+        List<SuggestionTrie.Suggestion> ranked = trie.complete("mo", 10);
+        assertEquals(List.of("mouse", "monitor"), texts(ranked));
+        assertEquals(6, ranked.get(0).getWeight());
+    }
+
+    private static List<String> texts(List<SuggestionTrie.Suggestion> suggestions) {
+        List<String> texts = new ArrayList<String>();
+        for (SuggestionTrie.Suggestion suggestion : suggestions) {
+            texts.add(suggestion.getText());
+        }
+        return texts;
+    }
+}
@@ -0,0 +1,102 @@
+package com.nothing.stella.miscellaneous;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+    // 10 ms ticks, 4 slots per level, 3 levels: 4, 16 and 64 tick spans
+    private static final long TICK = 10;
+
+    @Test
+    void firesOnItsTick() {
+        TimingWheel wheel = new TimingWheel(TICK, 4, 3, 0);
+        wheel.schedule(1, 30);
+
+        assertArrayEquals(new int[0], wheel.advance(29));
+        assertArrayEquals(new int[] { 1 }, wheel.advance(30));
+        assertArrayEquals(new int[0], wheel.advance(100));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesThroughCoarserLevels() {
+        TimingWheel wheel = new TimingWheel(TICK, 4, 3, 0);
+        // level 1 (4..15 ticks) and level 2 (16..63 ticks)
+        wheel.schedule(1, 70);
+        wheel.schedule(2, 230);
+        wheel.schedule(3, 470);
+        assertEquals(3, wheel.size());
+
+        for (long now = 0; now <= 700; now += TICK) {
+            int[] fired = wheel.advance(now);
+            if (now == 70) {
+                assertArrayEquals(new int[] { 1 }, fired);
+            } else if (now == 230) {
+                assertArrayEquals(new int[] { 2 }, fired);
+            } else if (now == 470) {
+                assertArrayEquals(new int[] { 3 }, fired);
+            } else {
+                assertArrayEquals(new int[0], fired, "nothing due at " + now);
+            }
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void keepsDeadlinesBeyondTheTopLevel() {
+        TimingWheel wheel = new TimingWheel(TICK, 4, 3, 0);
+        // 64 ticks is the whole wheel, this one has to be re-placed on a cascade
+        wheel.schedule(1, 1500);
+
+        assertArrayEquals(new int[0], wheel.advance(1490));
+        assertArrayEquals(new int[] { 1 }, wheel.advance(1500));
+    }
+
+    @Test
+    void firesOverdueDeadlinesOnTheNextAdvance() {
+        TimingWheel wheel = new TimingWheel(TICK, 4, 3, 1000);
+        wheel.schedule(1, 500);
+        wheel.schedule(2, 1000);
+
+        assertArrayEquals(new int[] { 1, 2 }, sorted(wheel.advance(1000)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void catchesUpAfterALongPause() {
+        TimingWheel wheel = new TimingWheel(TICK, 4, 3, 0);
+        for (int id = 1; id <= 100; id++) {
+            wheel.schedule(id, id * 37L);
+        }
+
+        int[] fired = sorted(wheel.advance(1850));
+        assertEquals(50, fired.length);
+        assertEquals(1, fired[0]);
+        assertEquals(50, fired[49]);
+
+        assertEquals(50, wheel.advance(10000).length);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void firesEveryEntryOfAFullBucket() {
+        TimingWheel wheel = new TimingWheel(TICK, 4, 3, 0);
+        int[] expected = new int[20];
+        for (int id = 1; id <= 20; id++) {
+            wheel.schedule(id, 200);
+            expected[id - 1] = id;
+        }
+
+        assertArrayEquals(expected, sorted(wheel.advance(200)));
+    }
+
+    private static int[] sorted(int[] ids) {
+        Arrays.sort(ids);
+        return ids;
+    }
+}
@@ -0,0 +1,130 @@
+package com.nothing.stella.services;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class OrderStatusStreamServiceImplTest {
+
+    private static final int SENDER_THREADS = 8;
+    private static final long SEND_TIMEOUT = 50;
+
+    // handed out in subscribe order
+    private final Queue<SseEmitter> emitters = new ConcurrentLinkedQueue<SseEmitter>();
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private OrderStatusStreamServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        OrderStatusCacheService orderStatusCacheService = mock(OrderStatusCacheService.class);
+        when(orderStatusCacheService.findStatus(anyInt())).thenReturn(Optional.of("created"));
+
+        service = new OrderStatusStreamServiceImpl() {
+            @Override
+            SseEmitter newEmitter() {
+                return emitters.poll();
+            }
+        };
+        ReflectionTestUtils.setField(service, "orderStatusCacheService", orderStatusCacheService);
+        ReflectionTestUtils.setField(service, "sendTimeout", SEND_TIMEOUT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        unblock.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void oneStalledStreamDoesNotDelayTheOthers() throws Exception {
+        StalledEmitter stalled = new StalledEmitter();
+        RecordingEmitter healthy = new RecordingEmitter();
+        emitters.add(stalled);
+        emitters.add(healthy);
+
+        service.subscribe(1);
+        assertTrue(stalled.entered.await(1, TimeUnit.SECONDS));
+
+        service.subscribe(2);
+        assertNotNull(healthy.sent.poll(1, TimeUnit.SECONDS), "current status");
+        service.publishOrderStatus(2, "paid");
+        assertNotNull(healthy.sent.poll(1, TimeUnit.SECONDS), "transition");
+    }
+
+    @Test
+    void stuckStreamsAreAbortedWithoutStarvingTheOthers() throws Exception {
+        // one stuck write per sender thread, none of them gives way to an interrupt
+        List<StalledEmitter> stalled = new ArrayList<StalledEmitter>();
+        for (int i = 0; i < SENDER_THREADS; i++) {
+            StalledEmitter emitter = new StalledEmitter();
+            stalled.add(emitter);
+            emitters.add(emitter);
+        }
+        RecordingEmitter healthy = new RecordingEmitter();
+        emitters.add(healthy);
+
+        for (int orderId = 1; orderId <= SENDER_THREADS; orderId++) {
+            service.subscribe(orderId);
+        }
+        for (StalledEmitter emitter : stalled) {
+            assertTrue(emitter.entered.await(1, TimeUnit.SECONDS));
+        }
+        service.subscribe(100);
+        assertNull(healthy.sent.poll(SEND_TIMEOUT, TimeUnit.MILLISECONDS), "every sender is blocked");
+
+        Thread.sleep(SEND_TIMEOUT * 2);
+        service.heartbeat();
+
+        assertNotNull(healthy.sent.poll(1, TimeUnit.SECONDS), "delivered by a stand-in sender");
+        for (StalledEmitter emitter : stalled) {
+            assertTrue(emitter.interrupted.await(1, TimeUnit.SECONDS), "stuck write was interrupted");
+        }
+    }
+
+    // blocks in its first write until the test ends, like a peer that stopped reading
+    private class StalledEmitter extends SseEmitter {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            entered.countDown();
+            while (true) {
+                try {
+                    unblock.await();
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<SseEventBuilder> sent = new LinkedBlockingQueue<SseEventBuilder>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.add(builder);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.nothing.stella.services;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.nothing.stella.miscellaneous.RankedIds;
+import com.nothing.stella.model.ProductIdAndNameModel;
+import com.nothing.stella.repository.ProductRepository;
+
+// Inverted index against a full scan over a 1M product catalog.
+// Opt in with: mvn test -Dtest=ProductSearchBenchmarkTest -Dbenchmark=true
+// The scan baseline does in memory what the old leading-wildcard LIKE made the
+// database do for every row, so it is a lower bound for the removed query.
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductSearchBenchmarkTest {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int VOCABULARY = 20_000;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private final ProductSearchServiceImpl searchService = new ProductSearchServiceImpl();
+    private final List<String> words = new ArrayList<String>();
+    private String[] names;
+    private String[] queries;
+
+    @BeforeAll
+    void buildCatalog() {
+        Random random = new Random(42);
+        for (int i = 0; i < VOCABULARY; i++) {
+            words.add(randomWord(random));
+        }
+
+        names = new String[PRODUCTS];
+        List<ProductIdAndNameModel> products = new ArrayList<ProductIdAndNameModel>(PRODUCTS);
+        for (int id = 1; id <= PRODUCTS; id++) {
+            StringBuilder name = new StringBuilder();
+            int length = 2 + random.nextInt(4);
+            for (int w = 0; w < length; w++) {
+                if (w > 0) {
+                    name.append(' ');
+                }
+                name.append(words.get(random.nextInt(VOCABULARY)));
+            }
+            names[id - 1] = name.toString();
+            products.add(new ProductIdAndNameModel(id, names[id - 1]));
+        }
+
+        // single words, a typed prefix and a two word phrase
+        queries = new String[30];
+        for (int i = 0; i < queries.length; i++) {
+            String word = words.get(random.nextInt(VOCABULARY));
+            switch (i % 3) {
+                case 0:
+                    queries[i] = word;
+                    break;
+                case 1:
+                    queries[i] = word.substring(0, Math.min(3, word.length()));
+                    break;
+                default:
+                    queries[i] = words.get(random.nextInt(VOCABULARY)) + " " + word.substring(0, 2);
+            }
+        }
+
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findActiveProductIdAndName()).thenReturn(products);
+        ReflectionTestUtils.setField(searchService, "productRepository", productRepository);
+
+        long started = System.nanoTime();
+        searchService.build();
+        System.out.printf(Locale.ROOT, "index build: %d products in %d ms%n", PRODUCTS,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Test
+    void termAndPrefixLookup() {
+        long indexNanos = measure(() -> {
+            long found = 0;
+            for (String query : queries) {
+                found += searchService.search(query).size();
+            }
+            return found;
+        });
+        long scanNanos = measure(() -> {
+            long found = 0;
+            for (String query : queries) {
+                found += scan(query);
+            }
+            return found;
+        });
+
+        System.out.printf(Locale.ROOT, "index: %,d ns/query, full scan: %,d ns/query, %.0fx%n",
+                indexNanos / queries.length, scanNanos / queries.length, (double) scanNanos / indexNanos);
+        assertTrue(indexNanos < scanNanos, "index lookup should beat a full scan");
+    }
+
+    @Test
+    void indexFindsWhatScanFindsForWholeWords() {
+        for (int i = 0; i < 20; i++) {
+            String word = words.get(i);
+            RankedIds hits = searchService.search(word);
+            for (int h = 0; h < hits.size(); h++) {
+                assertTrue(names[hits.getId(h) - 1].contains(word));
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------
+    // HELPER FUNCTIONS FOR BENCHMARK
+    // ----------------------------------------------------------------
+    private interface Round {
+        long run();
+    }
+
+    // best of the measured rounds, the sink keeps the JIT from dropping the work
+    private long measure(Round round) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += round.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long started = System.nanoTime();
+            sink += round.run();
+            best = Math.min(best, System.nanoTime() - started);
+        }
+        assertTrue(sink >= 0);
+        return best;
+    }
+
+    // what LIKE '%query%' does: look at every row
+    private long scan(String query) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        long found = 0;
+        for (String name : names) {
+            if (name.contains(needle)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static String randomWord(Random random) {
+        int length = 3 + random.nextInt(7);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+}